@@ -5,6 +5,7 @@ import com.recipebook.model.Ingredient;
 import com.recipebook.model.Role;
 import com.recipebook.model.User;
 import com.recipebook.repository.RecipeRepository;
+import com.recipebook.repository.RecipeSummaryRepository;
 import com.recipebook.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
@@ -22,7 +23,7 @@ public class DataLoader {
     private String adminPassword;
 
     @Bean
-    public CommandLineRunner loadData(RecipeRepository recipeRepository, UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public CommandLineRunner loadData(RecipeRepository recipeRepository, RecipeSummaryRepository recipeSummaryRepository, UserRepository userRepository, PasswordEncoder passwordEncoder) {
         return args -> {
             if (userRepository.count() == 0) {
                 User admin = new User();
@@ -111,9 +112,11 @@ public class DataLoader {
                 guacamoleIngredients.forEach(ing -> ing.setRecipe(guacamole));
                 guacamole.setIngredients(guacamoleIngredients);
                 
-                recipeRepository.save(carbonara);
-                recipeRepository.save(pancakes);
-                recipeRepository.save(guacamole);
+                for (Recipe recipe : List.of(carbonara, pancakes, guacamole)) {
+                    Long id = recipeRepository.save(recipe).getId();
+                    recipeRepository.refreshSearchVector(id);
+                    recipeSummaryRepository.refresh(id);
+                }
                 
                 System.out.println("Testdaten geladen: 3 Rezepte erstellt");
             }
@@ -0,0 +1,58 @@
+package com.recipebook.config;
+
+import com.recipebook.model.IngredientCatalog;
+import com.recipebook.repository.IngredientAliasRepository;
+import com.recipebook.repository.IngredientCatalogRepository;
+import com.recipebook.service.IngredientCatalogCache;
+import com.recipebook.util.IngredientNames;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Recomputes the match keys of the ingredient catalog when they were computed with another
+ * {@link IngredientNames#VERSION}, on the first start after V18 and after every change to the
+ * normalization. The keys live in Java only, a migration computing them would produce different
+ * keys depending on the code it runs with. Learned aliases are keyed by names that are not stored,
+ * they are dropped and learned again on the next lookups.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class IngredientMatchKeyRunner implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(IngredientMatchKeyRunner.class);
+
+    private final IngredientCatalogRepository catalogRepository;
+    private final IngredientAliasRepository aliasRepository;
+    private final IngredientCatalogCache catalogCache;
+
+    public IngredientMatchKeyRunner(IngredientCatalogRepository catalogRepository,
+            IngredientAliasRepository aliasRepository, IngredientCatalogCache catalogCache) {
+        this.catalogRepository = catalogRepository;
+        this.aliasRepository = aliasRepository;
+        this.catalogCache = catalogCache;
+    }
+
+    @Override
+    @Transactional
+    public void run(ApplicationArguments args) {
+        int stored = catalogRepository.findMatchKeyVersion();
+        if (stored == IngredientNames.VERSION) return;
+        List<IngredientCatalog> entries = catalogRepository.findAll();
+        // The name setter computes the key, changed entries are written on commit
+        entries.forEach(entry -> entry.setName(entry.getName()));
+        long aliases = aliasRepository.count();
+        aliasRepository.deleteAllInBatch();
+        catalogRepository.saveMatchKeyVersion(IngredientNames.VERSION);
+        catalogCache.invalidate();
+        log.info("Ingredient match keys recomputed for version {} (was {}): {} entries, {} aliases dropped",
+            IngredientNames.VERSION, stored, entries.size(), aliases);
+    }
+}
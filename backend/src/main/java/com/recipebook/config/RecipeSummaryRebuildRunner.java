@@ -0,0 +1,40 @@
+package com.recipebook.config;
+
+import com.recipebook.repository.RecipeSummaryRepository;
+import com.recipebook.service.RecipeSummaryCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Regenerates the recipe_summary read model from scratch when the application is started
+ * with {@code --rebuild-recipe-summary}.
+ */
+@Component
+public class RecipeSummaryRebuildRunner implements ApplicationRunner {
+
+    public static final String OPTION = "rebuild-recipe-summary";
+
+    private static final Logger log = LoggerFactory.getLogger(RecipeSummaryRebuildRunner.class);
+
+    private final RecipeSummaryRepository recipeSummaryRepository;
+    private final RecipeSummaryCache recipeSummaryCache;
+
+    public RecipeSummaryRebuildRunner(RecipeSummaryRepository recipeSummaryRepository, RecipeSummaryCache recipeSummaryCache) {
+        this.recipeSummaryRepository = recipeSummaryRepository;
+        this.recipeSummaryCache = recipeSummaryCache;
+    }
+
+    @Override
+    @Transactional
+    public void run(ApplicationArguments args) {
+        if (!args.containsOption(OPTION)) return;
+        recipeSummaryRepository.deleteAllRows();
+        recipeSummaryRepository.insertAll();
+        recipeSummaryCache.invalidate();
+        log.info("recipe_summary rebuilt: {} rows", recipeSummaryRepository.count());
+    }
+}
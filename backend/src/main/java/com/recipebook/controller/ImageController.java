@@ -0,0 +1,92 @@
+package com.recipebook.controller;
+
+import com.recipebook.service.ImageStorageService;
+import com.recipebook.service.ImageVariantService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+@RestController
+@RequestMapping("/api/images")
+public class ImageController {
+
+    private static final String CACHE_CONTROL_IMMUTABLE = "public, max-age=31536000, immutable";
+    private static final String CACHE_CONTROL_REVALIDATE = "no-cache";
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final ImageStorageService imageStorageService;
+    private final ImageVariantService imageVariantService;
+
+    public ImageController(ImageStorageService imageStorageService, ImageVariantService imageVariantService) {
+        this.imageStorageService = imageStorageService;
+        this.imageVariantService = imageVariantService;
+    }
+
+    @GetMapping("/{filename:.+}")
+    public void getImage(@PathVariable String filename, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Path path = imageStorageService.resolve(filename)
+            .or(() -> imageVariantService.resolveVariant(filename))
+            .orElse(null);
+        if (path != null) {
+            writeFile(path, path.getFileName().toString(), CACHE_CONTROL_IMMUTABLE, request, response);
+            return;
+        }
+        // Variant not rendered yet, or its original cannot be decoded: the card shows the original.
+        // The URL gets the variant once it exists, so this answer must be revalidated, not cached.
+        Path original = imageVariantService.originalHash(filename).flatMap(imageStorageService::findByHash).orElse(null);
+        if (original == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        writeFile(original, original.getFileName().toString(), CACHE_CONTROL_REVALIDATE, request, response);
+    }
+
+    /**
+     * Streams a stored file with the given caching header. The content never changes for a given
+     * file name, so the name doubles as ETag. Uses Tomcat's sendfile when available and a
+     * {@link FileChannel#transferTo} copy otherwise, so the bytes never pass through the heap.
+     */
+    static void writeFile(Path path, String filename, String cacheControl, HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        String etag = "\"" + filename + "\"";
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+        response.setHeader(HttpHeaders.ETAG, etag);
+        if (etag.equals(request.getHeader(HttpHeaders.IF_NONE_MATCH))) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            response.setContentType(MediaTypeFactory.getMediaType(filename)
+                .orElse(MediaType.APPLICATION_OCTET_STREAM).toString());
+            response.setContentLengthLong(size);
+
+            if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+                request.setAttribute(SENDFILE_FILENAME, path.toAbsolutePath().toString());
+                request.setAttribute(SENDFILE_START, 0L);
+                request.setAttribute(SENDFILE_END, size);
+                return;
+            }
+
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = 0;
+            while (position < size) {
+                position += channel.transferTo(position, size - position, out);
+            }
+        }
+    }
+}
@@ -1,8 +1,11 @@
 package com.recipebook.controller;
 
+import com.recipebook.dto.IngredientAliasDto;
 import com.recipebook.dto.IngredientCatalogDto;
 import com.recipebook.model.IngredientCatalog;
+import com.recipebook.repository.IngredientAliasRepository;
 import com.recipebook.repository.IngredientCatalogRepository;
+import com.recipebook.service.IngredientCatalogCache;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -17,9 +20,14 @@ import java.util.stream.Collectors;
 public class IngredientCatalogController {
 
     private final IngredientCatalogRepository repository;
+    private final IngredientAliasRepository aliasRepository;
+    private final IngredientCatalogCache catalogCache;
 
-    public IngredientCatalogController(IngredientCatalogRepository repository) {
+    public IngredientCatalogController(IngredientCatalogRepository repository,
+            IngredientAliasRepository aliasRepository, IngredientCatalogCache catalogCache) {
         this.repository = repository;
+        this.aliasRepository = aliasRepository;
+        this.catalogCache = catalogCache;
     }
 
     @GetMapping
@@ -46,7 +54,10 @@ public class IngredientCatalogController {
             dto.getNutritionCarbs(),
             dto.getNutritionFiber()
         );
+        entry.setDensity(dto.getDensity());
+        entry.setPieceWeight(dto.getPieceWeight());
         IngredientCatalog saved = repository.save(entry);
+        catalogCache.invalidate();
         return ResponseEntity.status(HttpStatus.CREATED).body(toDto(saved));
     }
 
@@ -66,7 +77,11 @@ public class IngredientCatalogController {
         entry.setNutritionProtein(dto.getNutritionProtein());
         entry.setNutritionCarbs(dto.getNutritionCarbs());
         entry.setNutritionFiber(dto.getNutritionFiber());
-        return ResponseEntity.ok(toDto(repository.save(entry)));
+        entry.setDensity(dto.getDensity());
+        entry.setPieceWeight(dto.getPieceWeight());
+        IngredientCatalog saved = repository.save(entry);
+        catalogCache.invalidate();
+        return ResponseEntity.ok(toDto(saved));
     }
 
     @DeleteMapping("/{id}")
@@ -76,6 +91,30 @@ public class IngredientCatalogController {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Eintrag nicht gefunden.");
         }
         repository.deleteById(id);
+        catalogCache.invalidate();
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * The aliases learned from OpenAI, so a wrong one can be found and removed.
+     */
+    @GetMapping("/aliases")
+    public ResponseEntity<List<IngredientAliasDto>> getAliases() {
+        List<IngredientAliasDto> result = aliasRepository.findAllByOrderByMatchKeyAsc()
+            .stream()
+            .map(a -> new IngredientAliasDto(a.getMatchKey(), a.getTargetKey(), a.getCreatedAt()))
+            .collect(Collectors.toList());
+        return ResponseEntity.ok(result);
+    }
+
+    @DeleteMapping("/aliases/{matchKey}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Void> deleteAlias(@PathVariable String matchKey) {
+        if (!aliasRepository.existsById(matchKey)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Alias nicht gefunden.");
+        }
+        aliasRepository.deleteById(matchKey);
+        catalogCache.invalidate();
         return ResponseEntity.noContent().build();
     }
 
@@ -83,7 +122,8 @@ public class IngredientCatalogController {
         return new IngredientCatalogDto(
             e.getId(), e.getName(), e.getUnit(),
             e.getNutritionKcal(), e.getNutritionFat(),
-            e.getNutritionProtein(), e.getNutritionCarbs(), e.getNutritionFiber()
+            e.getNutritionProtein(), e.getNutritionCarbs(), e.getNutritionFiber(),
+            e.getDensity(), e.getPieceWeight()
         );
     }
 }
@@ -1,92 +1,244 @@
 package com.recipebook.controller;
 
-import com.recipebook.dto.RecipeSummaryDto;
+import com.recipebook.dto.FuzzyMatchDto;
+import com.recipebook.dto.PantryMatchDto;
+import com.recipebook.dto.RecipeChangesDto;
+import com.recipebook.dto.RecipeDetailDto;
+import com.recipebook.dto.RecipePatchRequest;
+import com.recipebook.dto.RecipeSearchResultDto;
+import com.recipebook.dto.RecipeSummaryPageDto;
+import com.recipebook.dto.SimilarRecipeDto;
 import com.recipebook.dto.SourceAuthorDto;
+import com.recipebook.dto.SuggestionDto;
 import com.recipebook.model.CustomUserDetails;
 import com.recipebook.model.Recipe;
-import com.recipebook.model.Role;
+import com.recipebook.service.AutocompleteIndex;
+import com.recipebook.service.PantryIndex;
 import com.recipebook.service.RecipeService;
+import com.recipebook.service.RecipeSummaryCache;
+import com.recipebook.service.SimilarRecipeIndex;
+import com.recipebook.service.TrigramSearchIndex;
+import com.recipebook.util.AcceptEncoding;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
 
 @RestController
 @RequestMapping("/api/recipes")
 public class RecipeController {
 
     private final RecipeService recipeService;
+    private final TrigramSearchIndex trigramSearchIndex;
+    private final PantryIndex pantryIndex;
+    private final AutocompleteIndex autocompleteIndex;
+    private final SimilarRecipeIndex similarRecipeIndex;
 
-    public RecipeController(RecipeService recipeService) {
+    public RecipeController(RecipeService recipeService, TrigramSearchIndex trigramSearchIndex, PantryIndex pantryIndex, AutocompleteIndex autocompleteIndex, SimilarRecipeIndex similarRecipeIndex) {
         this.recipeService = recipeService;
+        this.trigramSearchIndex = trigramSearchIndex;
+        this.pantryIndex = pantryIndex;
+        this.autocompleteIndex = autocompleteIndex;
+        this.similarRecipeIndex = similarRecipeIndex;
     }
 
+    /**
+     * Serves the cached, pre-serialized summary list. Clients revalidate with If-None-Match and get
+     * a 304 while the collection is unchanged; otherwise the gzip bytes are written as they are.
+     */
     @GetMapping
-    public List<RecipeSummaryDto> getAllRecipes() {
-        return recipeService.findAllSummaries();
+    public ResponseEntity<byte[]> getAllRecipes(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        RecipeSummaryCache.Snapshot snapshot = recipeService.getSummarySnapshot();
+        if (ifNoneMatch != null && ifNoneMatch.contains(snapshot.etag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(snapshot.etag())
+                    .cacheControl(CacheControl.noCache())
+                    .build();
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(snapshot.etag())
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (AcceptEncoding.acceptsGzip(acceptEncoding)) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(snapshot.gzipJson());
+        }
+        return response.body(gunzip(snapshot.gzipJson()));
+    }
+
+    /**
+     * Streams the full list straight from the database without going through the cache. Memory use
+     * stays constant regardless of the number of recipes, intended for exports and very large lists.
+     */
+    @GetMapping(params = "stream")
+    public void streamAllRecipes(HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        recipeService.writeAllSummaries(response.getOutputStream());
+    }
+
+    @GetMapping(params = "limit")
+    public RecipeSummaryPageDto getRecipePage(@RequestParam(required = false) Long after, @RequestParam int limit) {
+        return recipeService.findSummaryPage(after, limit);
+    }
+
+    @GetMapping("/changes")
+    public RecipeChangesDto getChanges(@RequestParam(defaultValue = "0") long since) {
+        return recipeService.findChanges(since);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Recipe> getRecipeById(@PathVariable Long id) {
-        return recipeService.findById(id)
-                .map(ResponseEntity::ok)
+    public ResponseEntity<RecipeDetailDto> getRecipeById(@PathVariable Long id) {
+        return recipeService.findDetail(id)
+                .map(detail -> ResponseEntity.ok().eTag(etag(detail)).body(detail))
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    @PostMapping("/batch")
+    public List<RecipeDetailDto> getRecipesByIds(@RequestBody List<Long> ids) {
+        return recipeService.findDetails(ids);
+    }
+
+    @GetMapping("/{id}/similar")
+    public List<SimilarRecipeDto> getSimilarRecipes(@PathVariable Long id, @RequestParam(defaultValue = "5") int limit) {
+        return similarRecipeIndex.findSimilar(id, Math.min(limit, RecipeService.MAX_PAGE_SIZE));
+    }
+
     @GetMapping("/sources")
     public List<SourceAuthorDto> getSources() {
-        return recipeService.findDistinctSourceAuthorPairs();
+        return autocompleteIndex.allSourceAuthorPairs();
     }
 
     @GetMapping("/units")
     public List<String> getUnits() {
-        return recipeService.findDistinctUnits();
+        return autocompleteIndex.allUnits();
+    }
+
+    /**
+     * Top suggestions for a prefix, e.g. {@code ?type=ingredient&prefix=kno}. Matches the start of
+     * any word, most used values first.
+     */
+    @GetMapping("/autocomplete")
+    public List<SuggestionDto> autocomplete(@RequestParam String type, @RequestParam String prefix,
+            @RequestParam(defaultValue = "10") int limit) {
+        AutocompleteIndex.Type suggestionType;
+        try {
+            suggestionType = AutocompleteIndex.Type.valueOf(type.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unbekannter Vorschlagstyp: " + type);
+        }
+        return autocompleteIndex.suggest(suggestionType, prefix, Math.min(limit, RecipeService.MAX_PAGE_SIZE));
     }
 
     @GetMapping("/search")
-    public List<Recipe> searchRecipes(@RequestParam String q) {
-        return recipeService.search(q);
+    public List<RecipeSearchResultDto> searchRecipes(@RequestParam String q,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return recipeService.search(q, page, size);
+    }
+
+    /**
+     * Typo-tolerant lookup by title, ingredient, source or author, answered from memory.
+     */
+    @GetMapping("/search/fuzzy")
+    public List<FuzzyMatchDto> fuzzySearch(@RequestParam String q, @RequestParam(defaultValue = "10") int limit) {
+        return trigramSearchIndex.search(q, Math.min(limit, RecipeService.MAX_PAGE_SIZE));
+    }
+
+    /**
+     * Recipes ranked by how few ingredients are missing given what is at home,
+     * e.g. {@code ?ingredients=Eier,Mehl,Milch}.
+     */
+    @GetMapping("/pantry")
+    public List<PantryMatchDto> findCookable(@RequestParam List<String> ingredients, @RequestParam(defaultValue = "20") int limit) {
+        return pantryIndex.findCookable(ingredients, Math.min(limit, RecipeService.MAX_PAGE_SIZE));
     }
 
     @PostMapping
-    public ResponseEntity<Recipe> createRecipe(@RequestBody Recipe recipe, @AuthenticationPrincipal CustomUserDetails userDetails) {
+    public ResponseEntity<RecipeDetailDto> createRecipe(@RequestBody Recipe recipe, @AuthenticationPrincipal CustomUserDetails userDetails) {
         Recipe saved = recipeService.saveForUser(recipe, userDetails);
-        return ResponseEntity.status(HttpStatus.CREATED).body(saved);
+        RecipeDetailDto detail = recipeService.findDetail(saved.getId()).orElseThrow();
+        return ResponseEntity.status(HttpStatus.CREATED).eTag(etag(detail)).body(detail);
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<Recipe> updateRecipe(@PathVariable Long id, @RequestBody Recipe recipe, @AuthenticationPrincipal CustomUserDetails userDetails) {
-        if (!recipeService.findById(id).isPresent()) {
-            return ResponseEntity.notFound().build();
-        }
+    public ResponseEntity<RecipeDetailDto> updateRecipe(@PathVariable Long id, @RequestBody Recipe recipe,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @AuthenticationPrincipal CustomUserDetails userDetails) {
+        return detailResponse(recipeService.update(id, recipe, userDetails, expectedVersion(ifMatch)));
+    }
 
-        boolean isAdmin = userDetails.getRole() == Role.ADMIN;
-        boolean isOwner = recipeService.isOwner(id, userDetails.getId());
+    @PatchMapping("/{id}")
+    public ResponseEntity<RecipeDetailDto> patchRecipe(@PathVariable Long id, @RequestBody RecipePatchRequest patch,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @AuthenticationPrincipal CustomUserDetails userDetails) {
+        return detailResponse(recipeService.patch(id, patch, userDetails, expectedVersion(ifMatch)));
+    }
 
-        if (!isAdmin && !isOwner) {
-            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
-        }
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteRecipe(@PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @AuthenticationPrincipal CustomUserDetails userDetails) {
+        return recipeService.delete(id, userDetails, expectedVersion(ifMatch))
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
 
-        recipe.setId(id);
-        Recipe updated = recipeService.saveForUser(recipe, userDetails);
-        return ResponseEntity.ok(updated);
+    // A write that passed the If-Match check but lost the race against a concurrent one
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity<Void> handleConcurrentWrite() {
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
     }
 
-    @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteRecipe(@PathVariable Long id, @AuthenticationPrincipal CustomUserDetails userDetails) {
-        if (!recipeService.findById(id).isPresent()) {
-            return ResponseEntity.notFound().build();
-        }
+    private ResponseEntity<RecipeDetailDto> detailResponse(Optional<Recipe> written) {
+        return written.flatMap(recipe -> recipeService.findDetail(recipe.getId()))
+                .map(detail -> ResponseEntity.ok().eTag(etag(detail)).body(detail))
+                .orElse(ResponseEntity.notFound().build());
+    }
 
-        boolean isAdmin = userDetails.getRole() == Role.ADMIN;
-        boolean isOwner = recipeService.isOwner(id, userDetails.getId());
+    private static String etag(RecipeDetailDto detail) {
+        return "\"" + detail.version() + "\"";
+    }
 
-        if (!isAdmin && !isOwner) {
-            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+    /**
+     * Version named by an If-Match header, null if there is none or it is "*". If-Match uses strong
+     * comparison, so a weak or unparseable tag can never match.
+     */
+    private static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) return null;
+        String tag = ifMatch.trim();
+        if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            try {
+                return Long.parseLong(tag.substring(1, tag.length() - 1));
+            } catch (NumberFormatException e) {
+                // falls through to 412
+            }
         }
+        throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "Das Rezept wurde inzwischen geändert. Bitte neu laden.");
+    }
 
-        recipeService.deleteById(id);
-        return ResponseEntity.noContent().build();
+    private static byte[] gunzip(byte[] gzipped) {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped))) {
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 }
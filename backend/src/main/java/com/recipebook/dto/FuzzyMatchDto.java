@@ -0,0 +1,21 @@
+package com.recipebook.dto;
+
+public class FuzzyMatchDto {
+
+  private Long id;
+  private String title;
+  private Double score;
+
+  public FuzzyMatchDto(Long id, String title, Double score) {
+    this.id = id;
+    this.title = title;
+    this.score = score;
+  }
+
+  public Long getId() { return id; }
+  public void setId(Long id) { this.id = id; }
+  public String getTitle() { return title; }
+  public void setTitle(String title) { this.title = title; }
+  public Double getScore() { return score; }
+  public void setScore(Double score) { this.score = score; }
+}
@@ -0,0 +1,25 @@
+package com.recipebook.dto;
+
+import java.time.LocalDateTime;
+
+public class IngredientAliasDto {
+
+    private String matchKey;
+    private String targetKey;
+    private LocalDateTime createdAt;
+
+    public IngredientAliasDto() {}
+
+    public IngredientAliasDto(String matchKey, String targetKey, LocalDateTime createdAt) {
+        this.matchKey = matchKey;
+        this.targetKey = targetKey;
+        this.createdAt = createdAt;
+    }
+
+    public String getMatchKey() { return matchKey; }
+    public void setMatchKey(String matchKey) { this.matchKey = matchKey; }
+    public String getTargetKey() { return targetKey; }
+    public void setTargetKey(String targetKey) { this.targetKey = targetKey; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
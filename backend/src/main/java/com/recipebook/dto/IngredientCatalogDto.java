@@ -10,11 +10,14 @@ public class IngredientCatalogDto {
     private Double nutritionProtein;
     private Double nutritionCarbs;
     private Double nutritionFiber;
+    private Double density;
+    private Double pieceWeight;
 
     public IngredientCatalogDto() {}
 
     public IngredientCatalogDto(Long id, String name, String unit, Double nutritionKcal,
-            Double nutritionFat, Double nutritionProtein, Double nutritionCarbs, Double nutritionFiber) {
+            Double nutritionFat, Double nutritionProtein, Double nutritionCarbs, Double nutritionFiber,
+            Double density, Double pieceWeight) {
         this.id = id;
         this.name = name;
         this.unit = unit;
@@ -23,6 +26,8 @@ public class IngredientCatalogDto {
         this.nutritionProtein = nutritionProtein;
         this.nutritionCarbs = nutritionCarbs;
         this.nutritionFiber = nutritionFiber;
+        this.density = density;
+        this.pieceWeight = pieceWeight;
     }
 
     public Long getId() { return id; }
@@ -41,4 +46,8 @@ public class IngredientCatalogDto {
     public void setNutritionCarbs(Double nutritionCarbs) { this.nutritionCarbs = nutritionCarbs; }
     public Double getNutritionFiber() { return nutritionFiber; }
     public void setNutritionFiber(Double nutritionFiber) { this.nutritionFiber = nutritionFiber; }
+    public Double getDensity() { return density; }
+    public void setDensity(Double density) { this.density = density; }
+    public Double getPieceWeight() { return pieceWeight; }
+    public void setPieceWeight(Double pieceWeight) { this.pieceWeight = pieceWeight; }
 }
@@ -0,0 +1,31 @@
+package com.recipebook.dto;
+
+import java.util.List;
+
+public class PantryMatchDto {
+
+  private Long id;
+  private String title;
+  private Integer matchedCount;
+  private Integer ingredientCount;
+  private List<String> missing;
+
+  public PantryMatchDto(Long id, String title, Integer matchedCount, Integer ingredientCount, List<String> missing) {
+    this.id = id;
+    this.title = title;
+    this.matchedCount = matchedCount;
+    this.ingredientCount = ingredientCount;
+    this.missing = missing;
+  }
+
+  public Long getId() { return id; }
+  public void setId(Long id) { this.id = id; }
+  public String getTitle() { return title; }
+  public void setTitle(String title) { this.title = title; }
+  public Integer getMatchedCount() { return matchedCount; }
+  public void setMatchedCount(Integer matchedCount) { this.matchedCount = matchedCount; }
+  public Integer getIngredientCount() { return ingredientCount; }
+  public void setIngredientCount(Integer ingredientCount) { this.ingredientCount = ingredientCount; }
+  public List<String> getMissing() { return missing; }
+  public void setMissing(List<String> missing) { this.missing = missing; }
+}
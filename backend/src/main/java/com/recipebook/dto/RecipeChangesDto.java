@@ -0,0 +1,23 @@
+package com.recipebook.dto;
+
+import java.util.List;
+
+public class RecipeChangesDto {
+
+  private Long version;
+  private List<RecipeSummaryDto> upserted;
+  private List<Long> deleted;
+
+  public RecipeChangesDto(Long version, List<RecipeSummaryDto> upserted, List<Long> deleted) {
+    this.version = version;
+    this.upserted = upserted;
+    this.deleted = deleted;
+  }
+
+  public Long getVersion() { return version; }
+  public void setVersion(Long version) { this.version = version; }
+  public List<RecipeSummaryDto> getUpserted() { return upserted; }
+  public void setUpserted(List<RecipeSummaryDto> upserted) { this.upserted = upserted; }
+  public List<Long> getDeleted() { return deleted; }
+  public void setDeleted(List<Long> deleted) { this.deleted = deleted; }
+}
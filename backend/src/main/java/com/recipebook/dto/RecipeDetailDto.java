@@ -0,0 +1,49 @@
+package com.recipebook.dto;
+
+import com.recipebook.model.EnrichmentStatus;
+import com.recipebook.model.Recipe;
+
+import java.util.List;
+
+/**
+ * Read-only view of a recipe with its ingredients and steps. Serializes to the same JSON as the
+ * {@link Recipe} entity, but holds no lazy state and can be cached and shared between requests.
+ */
+public record RecipeDetailDto(
+    Long id,
+    String title,
+    String description,
+    List<String> instructions,
+    List<IngredientDto> ingredients,
+    Integer baseServings,
+    String imageUrl,
+    String author,
+    String source,
+    String page,
+    Integer prepTimeMinutes,
+    Integer servingsTo,
+    Double nutritionKcal,
+    Double nutritionFat,
+    Double nutritionProtein,
+    Double nutritionCarbs,
+    Double nutritionFiber,
+    EnrichmentStatus enrichmentStatus,
+    Long version) {
+
+  public record IngredientDto(Long id, String name, String amount, String unit) {}
+
+  /**
+   * Copies a recipe whose ingredients and instructions are already initialized.
+   */
+  public static RecipeDetailDto of(Recipe recipe) {
+    List<IngredientDto> ingredients = recipe.getIngredients() == null ? List.of() : recipe.getIngredients().stream()
+        .map(i -> new IngredientDto(i.getId(), i.getName(), i.getAmount(), i.getUnit()))
+        .toList();
+    List<String> instructions = recipe.getInstructions() == null ? List.of() : recipe.getInstructions().stream().toList();
+    return new RecipeDetailDto(recipe.getId(), recipe.getTitle(), recipe.getDescription(), instructions, ingredients,
+        recipe.getBaseServings(), recipe.getImageUrl(), recipe.getAuthor(), recipe.getSource(), recipe.getPage(),
+        recipe.getPrepTimeMinutes(), recipe.getServingsTo(), recipe.getNutritionKcal(), recipe.getNutritionFat(),
+        recipe.getNutritionProtein(), recipe.getNutritionCarbs(), recipe.getNutritionFiber(),
+        recipe.getEnrichmentStatus(), recipe.getVersion());
+  }
+}
@@ -0,0 +1,47 @@
+package com.recipebook.dto;
+
+import com.recipebook.model.Ingredient;
+
+import java.util.List;
+
+/**
+ * Partial recipe update. Fields left out (null) keep their stored value; a list that is sent
+ * replaces the stored one. Ingredients that carry their id are updated in place.
+ */
+public class RecipePatchRequest {
+
+  private String title;
+  private String description;
+  private List<String> instructions;
+  private List<Ingredient> ingredients;
+  private Integer baseServings;
+  private String imageUrl;
+  private String author;
+  private String source;
+  private String page;
+  private Integer prepTimeMinutes;
+  private Integer servingsTo;
+
+  public String getTitle() { return title; }
+  public void setTitle(String title) { this.title = title; }
+  public String getDescription() { return description; }
+  public void setDescription(String description) { this.description = description; }
+  public List<String> getInstructions() { return instructions; }
+  public void setInstructions(List<String> instructions) { this.instructions = instructions; }
+  public List<Ingredient> getIngredients() { return ingredients; }
+  public void setIngredients(List<Ingredient> ingredients) { this.ingredients = ingredients; }
+  public Integer getBaseServings() { return baseServings; }
+  public void setBaseServings(Integer baseServings) { this.baseServings = baseServings; }
+  public String getImageUrl() { return imageUrl; }
+  public void setImageUrl(String imageUrl) { this.imageUrl = imageUrl; }
+  public String getAuthor() { return author; }
+  public void setAuthor(String author) { this.author = author; }
+  public String getSource() { return source; }
+  public void setSource(String source) { this.source = source; }
+  public String getPage() { return page; }
+  public void setPage(String page) { this.page = page; }
+  public Integer getPrepTimeMinutes() { return prepTimeMinutes; }
+  public void setPrepTimeMinutes(Integer prepTimeMinutes) { this.prepTimeMinutes = prepTimeMinutes; }
+  public Integer getServingsTo() { return servingsTo; }
+  public void setServingsTo(Integer servingsTo) { this.servingsTo = servingsTo; }
+}
@@ -0,0 +1,10 @@
+package com.recipebook.dto;
+
+public class RecipeSearchResultDto extends RecipeSummaryDto {
+
+  /** Matching passage with HTML-escaped text and the hits wrapped in {@code <mark>}. */
+  private String snippet;
+
+  public String getSnippet() { return snippet; }
+  public void setSnippet(String snippet) { this.snippet = snippet; }
+}
@@ -6,6 +6,7 @@ public class RecipeSummaryDto {
   private String title;
   private String description;
   private String imageUrl;
+  private String thumbnailUrl;
   private Integer prepTimeMinutes;
   private Integer baseServings;
   private Integer servingsTo;
@@ -18,6 +19,9 @@ public class RecipeSummaryDto {
   private Double nutritionFat;
   private Double nutritionProtein;
   private Double nutritionFiber;
+  private Long syncVersion;
+
+  public RecipeSummaryDto() {}
 
   public RecipeSummaryDto(Long id, String title, String description, String imageUrl,
       Integer prepTimeMinutes, Integer baseServings, Integer servingsTo, Long ingredientCount) {
@@ -39,6 +43,8 @@ public class RecipeSummaryDto {
   public void setDescription(String description) { this.description = description; }
   public String getImageUrl() { return imageUrl; }
   public void setImageUrl(String imageUrl) { this.imageUrl = imageUrl; }
+  public String getThumbnailUrl() { return thumbnailUrl; }
+  public void setThumbnailUrl(String thumbnailUrl) { this.thumbnailUrl = thumbnailUrl; }
   public Integer getPrepTimeMinutes() { return prepTimeMinutes; }
   public void setPrepTimeMinutes(Integer prepTimeMinutes) { this.prepTimeMinutes = prepTimeMinutes; }
   public Integer getBaseServings() { return baseServings; }
@@ -63,4 +69,6 @@ public class RecipeSummaryDto {
   public void setNutritionProtein(Double nutritionProtein) { this.nutritionProtein = nutritionProtein; }
   public Double getNutritionFiber() { return nutritionFiber; }
   public void setNutritionFiber(Double nutritionFiber) { this.nutritionFiber = nutritionFiber; }
+  public Long getSyncVersion() { return syncVersion; }
+  public void setSyncVersion(Long syncVersion) { this.syncVersion = syncVersion; }
 }
@@ -0,0 +1,19 @@
+package com.recipebook.dto;
+
+import java.util.List;
+
+public class RecipeSummaryPageDto {
+
+  private List<RecipeSummaryDto> items;
+  private Long nextCursor;
+
+  public RecipeSummaryPageDto(List<RecipeSummaryDto> items, Long nextCursor) {
+    this.items = items;
+    this.nextCursor = nextCursor;
+  }
+
+  public List<RecipeSummaryDto> getItems() { return items; }
+  public void setItems(List<RecipeSummaryDto> items) { this.items = items; }
+  public Long getNextCursor() { return nextCursor; }
+  public void setNextCursor(Long nextCursor) { this.nextCursor = nextCursor; }
+}
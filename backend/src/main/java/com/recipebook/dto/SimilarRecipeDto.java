@@ -0,0 +1,21 @@
+package com.recipebook.dto;
+
+public class SimilarRecipeDto {
+
+  private Long id;
+  private String title;
+  private Double similarity;
+
+  public SimilarRecipeDto(Long id, String title, Double similarity) {
+    this.id = id;
+    this.title = title;
+    this.similarity = similarity;
+  }
+
+  public Long getId() { return id; }
+  public void setId(Long id) { this.id = id; }
+  public String getTitle() { return title; }
+  public void setTitle(String title) { this.title = title; }
+  public Double getSimilarity() { return similarity; }
+  public void setSimilarity(Double similarity) { this.similarity = similarity; }
+}
@@ -0,0 +1,21 @@
+package com.recipebook.dto;
+
+public class SuggestionDto {
+
+  private String value;
+  private String hint;
+  private Integer count;
+
+  public SuggestionDto(String value, String hint, Integer count) {
+    this.value = value;
+    this.hint = hint;
+    this.count = count;
+  }
+
+  public String getValue() { return value; }
+  public void setValue(String value) { this.value = value; }
+  public String getHint() { return hint; }
+  public void setHint(String hint) { this.hint = hint; }
+  public Integer getCount() { return count; }
+  public void setCount(Integer count) { this.count = count; }
+}
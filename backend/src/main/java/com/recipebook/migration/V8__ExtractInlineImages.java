@@ -0,0 +1,57 @@
+package com.recipebook.migration;
+
+import com.recipebook.service.ImageStorageService;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+/**
+ * Moves base64 images that were stored inline in {@code recipes.image_url} into the
+ * {@link ImageStorageService} and replaces the column value with the image URL.
+ * Registered as a bean so Spring Boot hands it to Flyway together with the SQL migrations.
+ */
+@Component
+public class V8__ExtractInlineImages extends BaseJavaMigration {
+
+  private static final Logger log = LoggerFactory.getLogger(V8__ExtractInlineImages.class);
+
+  private final ImageStorageService imageStorageService;
+
+  public V8__ExtractInlineImages(ImageStorageService imageStorageService) {
+    this.imageStorageService = imageStorageService;
+  }
+
+  @Override
+  public void migrate(Context context) throws Exception {
+    Connection connection = context.getConnection();
+    try (PreparedStatement select = connection.prepareStatement(
+           "SELECT id, image_url FROM recipes WHERE image_url LIKE 'data:%'");
+         PreparedStatement update = connection.prepareStatement(
+           "UPDATE recipes SET image_url = ? WHERE id = ?")) {
+      // Read row by row through a cursor, each image can be several megabytes
+      select.setFetchSize(1);
+      try (ResultSet rows = select.executeQuery()) {
+        while (rows.next()) {
+          long id = rows.getLong("id");
+          String imageUrl;
+          try {
+            imageUrl = imageStorageService.storeDataUrl(rows.getString("image_url"));
+          } catch (ResponseStatusException e) {
+            log.warn("Could not extract inline image of recipe {}: {}", id, e.getReason());
+            continue;
+          }
+          update.setString(1, imageUrl);
+          update.setLong(2, id);
+          update.executeUpdate();
+        }
+      }
+    }
+  }
+}
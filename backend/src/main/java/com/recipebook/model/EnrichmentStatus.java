@@ -0,0 +1,10 @@
+package com.recipebook.model;
+
+/**
+ * Progress of the background enrichment (image, nutrition) of a recipe.
+ */
+public enum EnrichmentStatus {
+    PENDING,
+    DONE,
+    FAILED
+}
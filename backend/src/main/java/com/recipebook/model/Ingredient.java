@@ -8,7 +8,8 @@ import jakarta.persistence.*;
 public class Ingredient {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ingredients_id_seq")
+    @SequenceGenerator(name = "ingredients_id_seq", sequenceName = "ingredients_id_seq", allocationSize = 50)
     private Long id;
     
     @JsonIgnore
@@ -22,6 +23,10 @@ public class Ingredient {
     private String amount;
     
     private String unit;
+
+    @JsonIgnore
+    @Column(name = "sort_order", nullable = false)
+    private int sortOrder;
     
     public Ingredient() {}
     
@@ -70,4 +75,12 @@ public class Ingredient {
     public void setUnit(String unit) {
         this.unit = unit;
     }
+    
+    public int getSortOrder() {
+        return sortOrder;
+    }
+    
+    public void setSortOrder(int sortOrder) {
+        this.sortOrder = sortOrder;
+    }
 }
@@ -0,0 +1,35 @@
+package com.recipebook.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * A learned alias: ingredients whose {@link IngredientCatalog#getMatchKey match key} is
+ * {@code matchKey} use the catalog entries of {@code targetKey}, e.g. "lauchzwiebel" uses
+ * "fruhlingszwiebel". Learned when OpenAI names the basic ingredient of an unknown one.
+ */
+@Entity
+@Table(name = "ingredient_aliases")
+public class IngredientAlias {
+
+    @Id
+    @Column(name = "match_key")
+    private String matchKey;
+
+    @Column(name = "target_key", nullable = false)
+    private String targetKey;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    public IngredientAlias() {}
+
+    public IngredientAlias(String matchKey, String targetKey) {
+        this.matchKey = matchKey;
+        this.targetKey = targetKey;
+    }
+
+    public String getMatchKey() { return matchKey; }
+    public String getTargetKey() { return targetKey; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+}
@@ -1,5 +1,6 @@
 package com.recipebook.model;
 
+import com.recipebook.util.IngredientNames;
 import jakarta.persistence.*;
 
 @Entity
@@ -17,6 +18,10 @@ public class IngredientCatalog {
     @Column(nullable = false)
     private String unit = "";
 
+    /** {@link IngredientNames#matchKey} of the name, kept in sync by the name setter. */
+    @Column(name = "match_key", nullable = false)
+    private String matchKey = "";
+
     @Column(name = "nutrition_kcal")
     private Double nutritionKcal;
 
@@ -32,11 +37,31 @@ public class IngredientCatalog {
     @Column(name = "nutrition_fiber")
     private Double nutritionFiber;
 
+    /** Grams per millilitre, converts between mass and volume units. */
+    private Double density;
+
+    /** Grams per piece, converts between pieces and mass or volume units. */
+    private Double pieceWeight;
+
     public IngredientCatalog() {}
 
+    /**
+     * Key under which an ingredient is looked up: the {@link IngredientNames#matchKey} of the name, the unit as is.
+     */
+    public static String lookupKey(String name, String unit) {
+        return keyOf(IngredientNames.matchKey(name), unit);
+    }
+
+    /**
+     * The {@link #lookupKey} of an already normalized match key, of an entry or a learned alias.
+     */
+    public static String keyOf(String matchKey, String unit) {
+        return matchKey + "\n" + (unit != null ? unit.trim() : "");
+    }
+
     public IngredientCatalog(String name, String unit, Double nutritionKcal, Double nutritionFat,
             Double nutritionProtein, Double nutritionCarbs, Double nutritionFiber) {
-        this.name = name;
+        setName(name);
         this.unit = unit != null ? unit : "";
         this.nutritionKcal = nutritionKcal;
         this.nutritionFat = nutritionFat;
@@ -48,7 +73,11 @@ public class IngredientCatalog {
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
     public String getName() { return name; }
-    public void setName(String name) { this.name = name; }
+    public void setName(String name) {
+        this.name = name;
+        this.matchKey = IngredientNames.matchKey(name);
+    }
+    public String getMatchKey() { return matchKey; }
     public String getUnit() { return unit; }
     public void setUnit(String unit) { this.unit = unit != null ? unit : ""; }
     public Double getNutritionKcal() { return nutritionKcal; }
@@ -61,4 +90,8 @@ public class IngredientCatalog {
     public void setNutritionCarbs(Double nutritionCarbs) { this.nutritionCarbs = nutritionCarbs; }
     public Double getNutritionFiber() { return nutritionFiber; }
     public void setNutritionFiber(Double nutritionFiber) { this.nutritionFiber = nutritionFiber; }
+    public Double getDensity() { return density; }
+    public void setDensity(Double density) { this.density = density; }
+    public Double getPieceWeight() { return pieceWeight; }
+    public void setPieceWeight(Double pieceWeight) { this.pieceWeight = pieceWeight; }
 }
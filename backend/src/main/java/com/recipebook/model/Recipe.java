@@ -2,6 +2,7 @@ package com.recipebook.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
@@ -9,7 +10,8 @@ import java.util.List;
 public class Recipe {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "recipes_id_seq")
+    @SequenceGenerator(name = "recipes_id_seq", sequenceName = "recipes_id_seq", allocationSize = 50)
     private Long id;
     
     @Column(nullable = false)
@@ -20,10 +22,12 @@ public class Recipe {
     
     @ElementCollection
     @CollectionTable(name = "recipe_instructions", joinColumns = @JoinColumn(name = "recipe_id"))
+    @OrderColumn(name = "sort_order")
     @Column(name = "step", columnDefinition = "TEXT")
     private List<String> instructions;
     
     @OneToMany(mappedBy = "recipe", cascade = CascadeType.ALL, orphanRemoval = true)
+    @OrderBy("sortOrder")
     private List<Ingredient> ingredients;
     
     @Column(nullable = false)
@@ -52,8 +56,34 @@ public class Recipe {
     private Double nutritionProtein;
     private Double nutritionCarbs;
     private Double nutritionFiber;
+
+    @Version
+    @JsonIgnore
+    private Long version;
+
+    @JsonIgnore
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private EnrichmentStatus enrichmentStatus = EnrichmentStatus.DONE;
+
+    // Set on every update so the recipe row, and with it the version, changes even if only
+    // ingredients or steps were edited
+    @JsonIgnore
+    @Column(nullable = false)
+    private LocalDateTime updatedAt = LocalDateTime.now();
     
     public Recipe() {}
+
+    /**
+     * Numbers the ingredients in list order, so they load in the order they were entered.
+     */
+    @PrePersist
+    void numberIngredients() {
+        if (ingredients == null) return;
+        for (int i = 0; i < ingredients.size(); i++) {
+            ingredients.get(i).setSortOrder(i);
+        }
+    }
     
     public Long getId() {
         return id;
@@ -198,4 +228,28 @@ public class Recipe {
     public void setNutritionFiber(Double nutritionFiber) {
         this.nutritionFiber = nutritionFiber;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public EnrichmentStatus getEnrichmentStatus() {
+        return enrichmentStatus;
+    }
+
+    public void setEnrichmentStatus(EnrichmentStatus enrichmentStatus) {
+        this.enrichmentStatus = enrichmentStatus;
+    }
 }
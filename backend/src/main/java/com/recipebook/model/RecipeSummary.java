@@ -0,0 +1,96 @@
+package com.recipebook.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+/**
+ * Read model behind the recipe list. Rows are written only through the native
+ * statements in {@link com.recipebook.repository.RecipeSummaryRepository}.
+ */
+@Entity
+@Immutable
+@Table(name = "recipe_summary")
+public class RecipeSummary implements RecipeSummaryRow {
+
+    @Id
+    @Column(name = "recipe_id")
+    private Long recipeId;
+
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(nullable = false)
+    private String title;
+
+    @Column(columnDefinition = "TEXT")
+    private String description;
+
+    @Column(columnDefinition = "TEXT")
+    private String imageUrl;
+
+    private Integer prepTimeMinutes;
+
+    private Integer baseServings;
+
+    private Integer servingsTo;
+
+    @Column(nullable = false)
+    private Long ingredientCount;
+
+    private String author;
+
+    private String source;
+
+    @Column(nullable = false, length = 511)
+    private String createdBy;
+
+    @Column(columnDefinition = "TEXT")
+    private String ingredientNames;
+
+    private Double nutritionKcal;
+    private Double nutritionFat;
+    private Double nutritionProtein;
+    private Double nutritionFiber;
+
+    @Column(nullable = false)
+    private Long syncVersion;
+
+    public RecipeSummary() {}
+
+    public Long getRecipeId() { return recipeId; }
+    public void setRecipeId(Long recipeId) { this.recipeId = recipeId; }
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+    public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; }
+    public String getDescription() { return description; }
+    public void setDescription(String description) { this.description = description; }
+    public String getImageUrl() { return imageUrl; }
+    public void setImageUrl(String imageUrl) { this.imageUrl = imageUrl; }
+    public Integer getPrepTimeMinutes() { return prepTimeMinutes; }
+    public void setPrepTimeMinutes(Integer prepTimeMinutes) { this.prepTimeMinutes = prepTimeMinutes; }
+    public Integer getBaseServings() { return baseServings; }
+    public void setBaseServings(Integer baseServings) { this.baseServings = baseServings; }
+    public Integer getServingsTo() { return servingsTo; }
+    public void setServingsTo(Integer servingsTo) { this.servingsTo = servingsTo; }
+    public Long getIngredientCount() { return ingredientCount; }
+    public void setIngredientCount(Long ingredientCount) { this.ingredientCount = ingredientCount; }
+    public String getAuthor() { return author; }
+    public void setAuthor(String author) { this.author = author; }
+    public String getSource() { return source; }
+    public void setSource(String source) { this.source = source; }
+    public String getCreatedBy() { return createdBy; }
+    public void setCreatedBy(String createdBy) { this.createdBy = createdBy; }
+    public String getIngredientNames() { return ingredientNames; }
+    public void setIngredientNames(String ingredientNames) { this.ingredientNames = ingredientNames; }
+    public Double getNutritionKcal() { return nutritionKcal; }
+    public void setNutritionKcal(Double nutritionKcal) { this.nutritionKcal = nutritionKcal; }
+    public Double getNutritionFat() { return nutritionFat; }
+    public void setNutritionFat(Double nutritionFat) { this.nutritionFat = nutritionFat; }
+    public Double getNutritionProtein() { return nutritionProtein; }
+    public void setNutritionProtein(Double nutritionProtein) { this.nutritionProtein = nutritionProtein; }
+    public Double getNutritionFiber() { return nutritionFiber; }
+    public void setNutritionFiber(Double nutritionFiber) { this.nutritionFiber = nutritionFiber; }
+    public Long getSyncVersion() { return syncVersion; }
+    public void setSyncVersion(Long syncVersion) { this.syncVersion = syncVersion; }
+}
@@ -0,0 +1,25 @@
+package com.recipebook.model;
+
+/**
+ * The columns of a recipe summary row, shared by the {@link RecipeSummary} entity and the search
+ * hits projected from the same table, so both map to the summary DTO in one place.
+ */
+public interface RecipeSummaryRow {
+    Long getRecipeId();
+    String getTitle();
+    String getDescription();
+    String getImageUrl();
+    Integer getPrepTimeMinutes();
+    Integer getBaseServings();
+    Integer getServingsTo();
+    Long getIngredientCount();
+    String getAuthor();
+    String getSource();
+    String getCreatedBy();
+    String getIngredientNames();
+    Double getNutritionKcal();
+    Double getNutritionFat();
+    Double getNutritionProtein();
+    Double getNutritionFiber();
+    Long getSyncVersion();
+}
@@ -0,0 +1,28 @@
+package com.recipebook.repository;
+
+import com.recipebook.model.IngredientAlias;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface IngredientAliasRepository extends JpaRepository<IngredientAlias, String> {
+
+    List<IngredientAlias> findAllByOrderByMatchKeyAsc();
+
+    List<IngredientAlias> findByMatchKeyInOrTargetKeyIn(Collection<String> matchKeys, Collection<String> targetKeys);
+
+    /**
+     * Records an alias unless its match key already has one, the first learned target stays.
+     */
+    @Modifying
+    @Query(value = """
+        INSERT INTO ingredient_aliases (match_key, target_key, created_at)
+        VALUES (:matchKey, :targetKey, CURRENT_TIMESTAMP)
+        ON CONFLICT (match_key) DO NOTHING
+        """, nativeQuery = true)
+    void learn(@Param("matchKey") String matchKey, @Param("targetKey") String targetKey);
+}
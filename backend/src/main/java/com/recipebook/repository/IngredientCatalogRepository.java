@@ -1,32 +1,100 @@
 package com.recipebook.repository;
 
 import com.recipebook.model.IngredientCatalog;
+import com.recipebook.util.IngredientNames;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 public interface IngredientCatalogRepository extends JpaRepository<IngredientCatalog, Long> {
 
-    Optional<IngredientCatalog> findByNameIgnoreCaseAndUnit(String name, String unit);
+    /**
+     * Entries whose match key or one of its aliases is among {@code keys}, each with the alias key
+     * it was found by, or null.
+     */
+    @Query("""
+        SELECT c, a.matchKey FROM IngredientCatalog c
+        LEFT JOIN IngredientAlias a ON a.targetKey = c.matchKey AND a.matchKey IN :keys
+        WHERE c.unit IN :units AND (c.matchKey IN :keys OR a.matchKey IS NOT NULL)
+        ORDER BY c.id
+        """)
+    List<Object[]> findByMatchKeyInAndUnitIn(@Param("keys") Collection<String> keys, @Param("units") Collection<String> units);
+
+    /**
+     * Looks up several ingredients in one query, served by the index on (match_key, unit), and
+     * follows learned aliases. The result is keyed by {@link IngredientCatalog#lookupKey}. Of names
+     * with the same match key the oldest entry wins, and an entry of the name itself wins over one
+     * found by an alias.
+     * <p>
+     * Keys and units are two independent IN lists, so the query returns every stored combination
+     * of them, up to names × units rows rather than one per ingredient. The caller asks for the
+     * base units besides each ingredient's own, and picks only the keys it needs. For the tens of
+     * ingredients of a recipe this stays small; pairing each key with its units would need
+     * {@code unnest} over two arrays, which JPQL cannot express.
+     */
+    default Map<String, IngredientCatalog> findAllByLookupKey(Collection<String> names, Collection<String> units) {
+        Set<String> keys = names.stream().map(IngredientNames::matchKey)
+            .filter(key -> !key.isEmpty())
+            .collect(Collectors.toSet());
+        if (keys.isEmpty() || units.isEmpty()) return Map.of();
+        Set<String> trimmedUnits = units.stream().map(String::trim).collect(Collectors.toSet());
+        List<Object[]> rows = findByMatchKeyInAndUnitIn(keys, trimmedUnits);
+        Map<String, IngredientCatalog> result = new HashMap<>();
+        for (Object[] row : rows) {
+            IngredientCatalog entry = (IngredientCatalog) row[0];
+            if (keys.contains(entry.getMatchKey())) {
+                result.putIfAbsent(IngredientCatalog.keyOf(entry.getMatchKey(), entry.getUnit()), entry);
+            }
+        }
+        for (Object[] row : rows) {
+            IngredientCatalog entry = (IngredientCatalog) row[0];
+            if (row[1] != null) result.putIfAbsent(IngredientCatalog.keyOf((String) row[1], entry.getUnit()), entry);
+        }
+        return result;
+    }
 
     List<IngredientCatalog> findAllByOrderByNameAscUnitAsc();
 
+    List<IngredientCatalog> findByMatchKeyInOrderByIdAsc(Collection<String> matchKeys);
+
+    /** The {@link IngredientNames#VERSION} the stored match keys were computed with. */
+    @Query(value = "SELECT version FROM ingredient_match_key_version", nativeQuery = true)
+    int findMatchKeyVersion();
+
+    @Modifying
+    @Query(value = "UPDATE ingredient_match_key_version SET version = :version", nativeQuery = true)
+    void saveMatchKeyVersion(@Param("version") int version);
+
+    /**
+     * Adds a looked-up entry. An existing entry keeps its nutrition values and only gets a
+     * density or piece weight it does not have yet.
+     */
     @Modifying
     @Query(value = """
-        INSERT INTO ingredient_catalog (name, unit, nutrition_kcal, nutrition_fat, nutrition_protein, nutrition_carbs, nutrition_fiber)
-        VALUES (:name, :unit, :kcal, :fat, :protein, :carbs, :fiber)
-        ON CONFLICT (name, unit) DO NOTHING
+        INSERT INTO ingredient_catalog (name, match_key, unit, nutrition_kcal, nutrition_fat, nutrition_protein, nutrition_carbs, nutrition_fiber,
+            density, piece_weight)
+        VALUES (:name, :matchKey, :unit, :kcal, :fat, :protein, :carbs, :fiber, :density, :pieceWeight)
+        ON CONFLICT (name, unit) DO UPDATE SET
+            density = COALESCE(ingredient_catalog.density, EXCLUDED.density),
+            piece_weight = COALESCE(ingredient_catalog.piece_weight, EXCLUDED.piece_weight)
         """, nativeQuery = true)
-    void insertIfAbsent(
+    void insertOrComplete(
         @Param("name") String name,
+        @Param("matchKey") String matchKey,
         @Param("unit") String unit,
         @Param("kcal") Double kcal,
         @Param("fat") Double fat,
         @Param("protein") Double protein,
         @Param("carbs") Double carbs,
-        @Param("fiber") Double fiber
+        @Param("fiber") Double fiber,
+        @Param("density") Double density,
+        @Param("pieceWeight") Double pieceWeight
     );
 }
@@ -1,58 +1,44 @@
 package com.recipebook.repository;
 
-import com.recipebook.dto.SourceAuthorDto;
 import com.recipebook.model.Recipe;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface RecipeRepository extends JpaRepository<Recipe, Long> {
 
-  interface RecipeSummaryProjection {
-    Long getId();
-    String getTitle();
-    String getDescription();
-    String getImageUrl();
-    Integer getPrepTimeMinutes();
-    Integer getBaseServings();
-    Integer getServingsTo();
-    Long getIngredientCount();
-    String getAuthor();
-    String getSource();
-    String getCreatedBy();
-    String getIngredientNames();
-    Double getNutritionKcal();
-    Double getNutritionFat();
-    Double getNutritionProtein();
-    Double getNutritionFiber();
-  }
-
-  @Query(value =
-      "SELECT r.id, r.title, r.description, r.image_url AS imageUrl, " +
-      "r.prep_time_minutes AS prepTimeMinutes, r.base_servings AS baseServings, r.servings_to AS servingsTo, " +
-      "COUNT(i.id) AS ingredientCount, " +
-      "r.author, r.source, " +
-      "r.nutrition_kcal AS nutritionKcal, r.nutrition_fat AS nutritionFat, " +
-      "r.nutrition_protein AS nutritionProtein, r.nutrition_fiber AS nutritionFiber, " +
-      "COALESCE(CONCAT_WS(' ', NULLIF(u.vorname, ''), NULLIF(u.nachname, '')), '') AS createdBy, " +
-      "STRING_AGG(i.name, ', ') AS ingredientNames " +
-      "FROM recipes r " +
-      "LEFT JOIN ingredients i ON i.recipe_id = r.id " +
-      "LEFT JOIN users u ON u.id = r.user_id " +
-      "GROUP BY r.id, u.vorname, u.nachname " +
-      "ORDER BY r.id DESC",
-      nativeQuery = true)
-  List<RecipeSummaryProjection> findAllSummaries();
-
-  @Query("SELECT new com.recipebook.dto.SourceAuthorDto(r.source, r.author) " +
-      "FROM Recipe r WHERE r.source IS NOT NULL AND r.source <> '' " +
-      "GROUP BY r.source, r.author ORDER BY r.source")
-  List<SourceAuthorDto> findDistinctSourceAuthorPairs();
-
-  @Query("SELECT DISTINCT i.unit FROM Ingredient i WHERE i.unit IS NOT NULL AND i.unit <> '' ORDER BY i.unit")
-  List<String> findDistinctUnits();
-
-  @Query("SELECT r FROM Recipe r WHERE LOWER(r.title) LIKE LOWER(CONCAT('%', :query, '%')) OR LOWER(r.description) LIKE LOWER(CONCAT('%', :query, '%'))")
-  List<Recipe> searchByTitleOrDescription(@Param("query") String query);
+  // Ingredients and instructions are both bags, Hibernate cannot fetch them in one query.
+  // Run both in the same persistence context and the second completes the entity of the first.
+  @Query("SELECT DISTINCT r FROM Recipe r LEFT JOIN FETCH r.ingredients WHERE r.id = :id")
+  Optional<Recipe> findWithIngredientsById(@Param("id") Long id);
+
+  @Query("SELECT DISTINCT r FROM Recipe r LEFT JOIN FETCH r.instructions WHERE r.id = :id")
+  Optional<Recipe> findWithInstructionsById(@Param("id") Long id);
+
+  // Serializes enrichment write-backs of the same recipe, which would otherwise fail on the version check
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("SELECT r.id FROM Recipe r WHERE r.id = :id")
+  Optional<Long> lockById(@Param("id") Long id);
+
+  @Query("SELECT DISTINCT r FROM Recipe r LEFT JOIN FETCH r.ingredients WHERE r.id IN :ids")
+  List<Recipe> findWithIngredientsByIdIn(@Param("ids") Collection<Long> ids);
+
+  @Query("SELECT DISTINCT r FROM Recipe r LEFT JOIN FETCH r.instructions WHERE r.id IN :ids")
+  List<Recipe> findWithInstructionsByIdIn(@Param("ids") Collection<Long> ids);
+
+  @Transactional
+  @Modifying(flushAutomatically = true)
+  @Query(value = "UPDATE recipes SET search_vector = recipe_search_vector(id) WHERE id = :id", nativeQuery = true)
+  void refreshSearchVector(@Param("id") Long id);
+
+  @Modifying(flushAutomatically = true)
+  @Query(value = "UPDATE recipes SET sync_version = :syncVersion, updated_at = CURRENT_TIMESTAMP WHERE id = :id", nativeQuery = true)
+  void markChanged(@Param("id") Long id, @Param("syncVersion") Long syncVersion);
 }
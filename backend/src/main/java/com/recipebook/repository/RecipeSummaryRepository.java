@@ -0,0 +1,138 @@
+package com.recipebook.repository;
+
+import com.recipebook.model.RecipeSummary;
+import com.recipebook.model.RecipeSummaryRow;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.List;
+
+public interface RecipeSummaryRepository extends JpaRepository<RecipeSummary, Long> {
+
+  String SUMMARY_INSERT =
+      "INSERT INTO recipe_summary (recipe_id, user_id, title, description, image_url, prep_time_minutes, " +
+      "base_servings, servings_to, ingredient_count, author, source, created_by, ingredient_names, " +
+      "nutrition_kcal, nutrition_fat, nutrition_protein, nutrition_fiber, sync_version) " +
+      "SELECT r.id, r.user_id, r.title, r.description, r.image_url, r.prep_time_minutes, " +
+      "r.base_servings, r.servings_to, COUNT(i.id), r.author, r.source, " +
+      "COALESCE(CONCAT_WS(' ', NULLIF(u.vorname, ''), NULLIF(u.nachname, '')), ''), " +
+      "STRING_AGG(i.name, ', ' ORDER BY i.sort_order), " +
+      "r.nutrition_kcal, r.nutrition_fat, r.nutrition_protein, r.nutrition_fiber, r.sync_version " +
+      "FROM recipes r " +
+      "LEFT JOIN ingredients i ON i.recipe_id = r.id " +
+      "LEFT JOIN users u ON u.id = r.user_id ";
+
+  long SYNC_LOCK_KEY = 7420010L;
+
+  interface SearchHitProjection extends RecipeSummaryRow {
+    String getSnippet();
+  }
+
+  List<RecipeSummary> findByRecipeIdLessThanOrderByRecipeIdDesc(Long recipeId, Limit limit);
+
+  List<RecipeSummary> findBySyncVersionGreaterThanOrderBySyncVersionAsc(Long syncVersion);
+
+  /**
+   * Full-text search over title, ingredients, description and instructions, best match first.
+   * The query accepts web search syntax: quoted phrases, "or" and a leading "-" to exclude.
+   * Hits are ranked and cut to the page first, so the summary join and ts_headline only run for
+   * the rows returned. The text is HTML-escaped before highlighting so the snippet is safe to render.
+   */
+  @Query(value =
+      "SELECT s.recipe_id AS recipeId, s.title, s.description, s.image_url AS imageUrl, " +
+      "s.prep_time_minutes AS prepTimeMinutes, s.base_servings AS baseServings, s.servings_to AS servingsTo, " +
+      "s.ingredient_count AS ingredientCount, s.author, s.source, s.created_by AS createdBy, " +
+      "s.ingredient_names AS ingredientNames, s.nutrition_kcal AS nutritionKcal, s.nutrition_fat AS nutritionFat, " +
+      "s.nutrition_protein AS nutritionProtein, s.nutrition_fiber AS nutritionFiber, s.sync_version AS syncVersion, " +
+      "ts_headline('german', " +
+      "REPLACE(REPLACE(REPLACE(CONCAT_WS(' … ', NULLIF(s.description, ''), s.ingredient_names, " +
+      "(SELECT STRING_AGG(st.step, ' ') FROM recipe_instructions st WHERE st.recipe_id = s.recipe_id)), " +
+      "'&', '&amp;'), '<', '&lt;'), '>', '&gt;'), hit.query, " +
+      "'StartSel=<mark>, StopSel=</mark>, MaxWords=30, MinWords=12, MaxFragments=2, FragmentDelimiter=\" … \"') AS snippet " +
+      "FROM (SELECT r.id, ts_rank(r.search_vector, q) AS rank, q AS query " +
+      "FROM recipes r, websearch_to_tsquery('german', :query) q " +
+      "WHERE r.search_vector @@ q " +
+      "ORDER BY rank DESC, r.id DESC LIMIT :limit OFFSET :offset) hit " +
+      "JOIN recipe_summary s ON s.recipe_id = hit.id " +
+      "ORDER BY hit.rank DESC, hit.id DESC",
+      nativeQuery = true)
+  List<SearchHitProjection> search(@Param("query") String query, @Param("limit") int limit, @Param("offset") int offset);
+
+  @Query(value = "SELECT recipe_id FROM recipe_tombstones WHERE sync_version > :since ORDER BY sync_version", nativeQuery = true)
+  List<Long> findDeletedRecipeIdsSince(@Param("since") Long since);
+
+  @Query(value = "SELECT COALESCE(MAX(sync_version), 0) FROM recipe_tombstones WHERE sync_version > :since", nativeQuery = true)
+  Long findLatestTombstoneVersionSince(@Param("since") Long since);
+
+  /**
+   * Allocates the next change-feed version. The transaction-scoped advisory lock serializes writers
+   * until commit, so versions become visible in the order they were handed out and a client that
+   * has seen version n can never miss a later commit with a smaller one.
+   * <p>
+   * The price is one global lock: every recipe save, user rename and enrichment write-back waits
+   * for the previous one to commit. Call this as late as possible in a short transaction, never in
+   * one that also waits for the network.
+   */
+  @Query(value = "SELECT nextval('recipe_sync_version_seq') FROM (SELECT pg_advisory_xact_lock(" + SYNC_LOCK_KEY + ")) AS sync_lock",
+      nativeQuery = true)
+  Long nextSyncVersion();
+
+  @Transactional
+  @Modifying(flushAutomatically = true)
+  @Query(value = SUMMARY_INSERT +
+      "WHERE r.id = :recipeId " +
+      "GROUP BY r.id, u.vorname, u.nachname " +
+      "ON CONFLICT (recipe_id) DO UPDATE SET " +
+      "user_id = EXCLUDED.user_id, title = EXCLUDED.title, description = EXCLUDED.description, " +
+      "image_url = EXCLUDED.image_url, prep_time_minutes = EXCLUDED.prep_time_minutes, " +
+      "base_servings = EXCLUDED.base_servings, servings_to = EXCLUDED.servings_to, " +
+      "ingredient_count = EXCLUDED.ingredient_count, author = EXCLUDED.author, source = EXCLUDED.source, " +
+      "created_by = EXCLUDED.created_by, ingredient_names = EXCLUDED.ingredient_names, " +
+      "nutrition_kcal = EXCLUDED.nutrition_kcal, nutrition_fat = EXCLUDED.nutrition_fat, " +
+      "nutrition_protein = EXCLUDED.nutrition_protein, nutrition_fiber = EXCLUDED.nutrition_fiber, " +
+      "sync_version = EXCLUDED.sync_version",
+      nativeQuery = true)
+  void refresh(@Param("recipeId") Long recipeId);
+
+  /**
+   * Re-derives createdBy for all recipes of a user after the user was renamed or deleted. The
+   * recipes get the same sync version as their summaries, so a later {@link #refresh} or rebuild,
+   * which copies it from the recipe, cannot move a summary's version backwards. The recipes are
+   * found through the summaries, after a deletion their own user_id is already null.
+   */
+  @Transactional
+  @Modifying(flushAutomatically = true)
+  @Query(value =
+      "WITH changed AS (" +
+      "UPDATE recipe_summary s SET " +
+      "user_id = (SELECT u.id FROM users u WHERE u.id = s.user_id), " +
+      "created_by = COALESCE((SELECT CONCAT_WS(' ', NULLIF(u.vorname, ''), NULLIF(u.nachname, '')) " +
+      "FROM users u WHERE u.id = s.user_id), ''), " +
+      "sync_version = :syncVersion " +
+      "WHERE s.user_id = :userId " +
+      "RETURNING s.recipe_id) " +
+      "UPDATE recipes r SET sync_version = :syncVersion FROM changed c WHERE r.id = c.recipe_id",
+      nativeQuery = true)
+  void refreshCreatedBy(@Param("userId") Long userId, @Param("syncVersion") Long syncVersion);
+
+  @Transactional
+  @Modifying
+  @Query(value =
+      "INSERT INTO recipe_tombstones (recipe_id, sync_version) VALUES (:recipeId, :syncVersion) " +
+      "ON CONFLICT (recipe_id) DO UPDATE SET sync_version = EXCLUDED.sync_version, deleted_at = CURRENT_TIMESTAMP",
+      nativeQuery = true)
+  void insertTombstone(@Param("recipeId") Long recipeId, @Param("syncVersion") Long syncVersion);
+
+  @Transactional
+  @Modifying
+  @Query(value = "DELETE FROM recipe_summary", nativeQuery = true)
+  void deleteAllRows();
+
+  @Transactional
+  @Modifying
+  @Query(value = SUMMARY_INSERT + "GROUP BY r.id, u.vorname, u.nachname", nativeQuery = true)
+  void insertAll();
+}
@@ -9,6 +9,7 @@ import com.recipebook.model.Role;
 import com.recipebook.model.User;
 import com.recipebook.repository.InvitationTokenRepository;
 import com.recipebook.repository.PasswordResetTokenRepository;
+import com.recipebook.repository.RecipeSummaryRepository;
 import com.recipebook.repository.UserRepository;
 import jakarta.mail.internet.MimeMessage;
 import org.springframework.beans.factory.annotation.Value;
@@ -36,6 +37,8 @@ public class AuthService {
     private final UserRepository userRepository;
     private final PasswordResetTokenRepository tokenRepository;
     private final InvitationTokenRepository invitationTokenRepository;
+    private final RecipeSummaryRepository recipeSummaryRepository;
+    private final RecipeSummaryCache recipeSummaryCache;
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
@@ -51,6 +54,8 @@ public class AuthService {
             UserRepository userRepository,
             PasswordResetTokenRepository tokenRepository,
             InvitationTokenRepository invitationTokenRepository,
+            RecipeSummaryRepository recipeSummaryRepository,
+            RecipeSummaryCache recipeSummaryCache,
             PasswordEncoder passwordEncoder,
             JwtService jwtService,
             AuthenticationManager authenticationManager,
@@ -58,6 +63,8 @@ public class AuthService {
         this.userRepository = userRepository;
         this.tokenRepository = tokenRepository;
         this.invitationTokenRepository = invitationTokenRepository;
+        this.recipeSummaryRepository = recipeSummaryRepository;
+        this.recipeSummaryCache = recipeSummaryCache;
         this.passwordEncoder = passwordEncoder;
         this.jwtService = jwtService;
         this.authenticationManager = authenticationManager;
@@ -156,7 +163,10 @@ public class AuthService {
             user.setMustChangePassword(false);
         }
 
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        recipeSummaryRepository.refreshCreatedBy(saved.getId(), recipeSummaryRepository.nextSyncVersion());
+        recipeSummaryCache.invalidate();
+        return saved;
     }
 
     @Transactional
@@ -180,7 +190,10 @@ public class AuthService {
             user.setRole(request.getRole());
         }
 
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        recipeSummaryRepository.refreshCreatedBy(saved.getId(), recipeSummaryRepository.nextSyncVersion());
+        recipeSummaryCache.invalidate();
+        return saved;
     }
 
     @Transactional
@@ -190,6 +203,8 @@ public class AuthService {
         tokenRepository.deleteByUser(user);
         invitationTokenRepository.deleteByInvitedBy(user);
         userRepository.delete(user);
+        recipeSummaryRepository.refreshCreatedBy(id, recipeSummaryRepository.nextSyncVersion());
+        recipeSummaryCache.invalidate();
     }
 
     @Transactional
@@ -0,0 +1,166 @@
+package com.recipebook.service;
+
+import com.recipebook.dto.SourceAuthorDto;
+import com.recipebook.dto.SuggestionDto;
+import com.recipebook.util.SearchText;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Prefix suggestions for ingredient names, units, titles and source/author pairs. Each vocabulary
+ * counts how many recipes use a value and keeps the value's word starts in a sorted map, so a
+ * lookup is a tree search plus a scan over the matching range. A write only changes counts, and
+ * adds or removes the word starts of values that appear or disappear with it.
+ */
+@Service
+public class AutocompleteIndex extends InMemoryRecipeIndex {
+
+  public enum Type { INGREDIENT, UNIT, TITLE, SOURCE }
+
+  private static final class Entry {
+    final String value;
+    final String hint;
+    final List<String> wordStarts;
+    int count;
+
+    Entry(String value, String hint) {
+      this.value = value;
+      this.hint = hint;
+      this.wordStarts = wordStarts(SearchText.normalize(value));
+    }
+
+    private static List<String> wordStarts(String normalized) {
+      List<String> starts = new ArrayList<>();
+      for (int i = 0; i < normalized.length(); i++) {
+        if (i == 0 || !Character.isLetterOrDigit(normalized.charAt(i - 1))) {
+          if (Character.isLetterOrDigit(normalized.charAt(i))) starts.add(normalized.substring(i));
+        }
+      }
+      return starts;
+    }
+  }
+
+  private static final class Vocabulary {
+    final Map<String, Entry> entries = new HashMap<>();
+    /** Word start to the entries having it, e.g. one entry per author of the same source. */
+    final NavigableMap<String, List<Entry>> starts = new TreeMap<>();
+
+    void add(String key, String value, String hint) {
+      Entry entry = entries.get(key);
+      if (entry == null) {
+        entry = new Entry(value, hint);
+        entries.put(key, entry);
+        for (String start : entry.wordStarts) starts.computeIfAbsent(start, s -> new ArrayList<>(1)).add(entry);
+      }
+      entry.count++;
+    }
+
+    void remove(String key) {
+      Entry entry = entries.get(key);
+      if (entry == null || --entry.count > 0) return;
+      entries.remove(key);
+      for (String start : entry.wordStarts) {
+        List<Entry> sharing = starts.get(start);
+        sharing.remove(entry);
+        if (sharing.isEmpty()) starts.remove(start);
+      }
+    }
+
+    void clear() {
+      entries.clear();
+      starts.clear();
+    }
+
+    List<Entry> top(String prefix, int limit) {
+      Set<Entry> matches = Collections.newSetFromMap(new IdentityHashMap<>());
+      for (Map.Entry<String, List<Entry>> start : starts.tailMap(prefix, true).entrySet()) {
+        if (!start.getKey().startsWith(prefix)) break;
+        matches.addAll(start.getValue());
+      }
+      return matches.stream()
+        .sorted(Comparator.comparingInt((Entry e) -> e.count).reversed().thenComparing(e -> e.value, String.CASE_INSENSITIVE_ORDER))
+        .limit(limit)
+        .toList();
+    }
+  }
+
+  private record Contribution(Type type, String key) {}
+
+  private final Map<Type, Vocabulary> vocabularies = new EnumMap<>(Type.class);
+  private final Map<Long, List<Contribution>> contributions = new HashMap<>();
+
+  public AutocompleteIndex(IndexedRecipeLoader loader) {
+    super(loader);
+    for (Type type : Type.values()) vocabularies.put(type, new Vocabulary());
+  }
+
+  /**
+   * Returns up to {@code limit} values of the given type with a word starting with {@code prefix},
+   * most used first.
+   */
+  public List<SuggestionDto> suggest(Type type, String prefix, int limit) {
+    String normalized = SearchText.normalize(prefix);
+    if (normalized.isEmpty() || limit <= 0) return List.of();
+    return read(() -> vocabularies.get(type).top(normalized, limit).stream()
+      .map(e -> new SuggestionDto(e.value, e.hint, e.count))
+      .toList());
+  }
+
+  /** All known units in alphabetical order, for the unit picker of the recipe editor. */
+  public List<String> allUnits() {
+    return read(() -> vocabularies.get(Type.UNIT).entries.values().stream()
+      .map(e -> e.value)
+      .sorted(String.CASE_INSENSITIVE_ORDER)
+      .toList());
+  }
+
+  /** All source/author pairs ordered by source. */
+  public List<SourceAuthorDto> allSourceAuthorPairs() {
+    return read(() -> vocabularies.get(Type.SOURCE).entries.values().stream()
+      .sorted(Comparator.comparing((Entry e) -> e.value, String.CASE_INSENSITIVE_ORDER))
+      .map(e -> new SourceAuthorDto(e.value, e.hint))
+      .toList());
+  }
+
+  @Override
+  protected void clear() {
+    vocabularies.values().forEach(Vocabulary::clear);
+    contributions.clear();
+  }
+
+  @Override
+  protected void add(IndexedRecipe recipe) {
+    Set<Contribution> added = new LinkedHashSet<>();
+    for (String name : recipe.ingredientNames()) contribute(added, Type.INGREDIENT, name.trim(), null);
+    for (String unit : recipe.units()) contribute(added, Type.UNIT, unit.trim(), null);
+    if (recipe.title() != null && !recipe.title().isBlank()) contribute(added, Type.TITLE, recipe.title().trim(), null);
+    if (recipe.source() != null && !recipe.source().isBlank()) contribute(added, Type.SOURCE, recipe.source().trim(), recipe.author());
+    contributions.put(recipe.id(), List.copyOf(added));
+  }
+
+  @Override
+  protected void remove(long recipeId) {
+    List<Contribution> removed = contributions.remove(recipeId);
+    if (removed == null) return;
+    for (Contribution c : removed) vocabularies.get(c.type()).remove(c.key());
+  }
+
+  /** Counts a value once per recipe; values differing only in case or accents share an entry. */
+  private void contribute(Set<Contribution> added, Type type, String value, String hint) {
+    String key = hint == null ? SearchText.normalize(value) : SearchText.normalize(value) + "\u0000" + SearchText.normalize(hint);
+    if (key.isEmpty() || !added.add(new Contribution(type, key))) return;
+    vocabularies.get(type).add(key, value, hint);
+  }
+}
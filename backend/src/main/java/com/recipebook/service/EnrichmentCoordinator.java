@@ -0,0 +1,38 @@
+package com.recipebook.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the outbound lookups of one recipe side by side, each on its own virtual thread, so the
+ * enrichment takes as long as the slowest call instead of the sum of all. The calls share one
+ * deadline; whatever has not finished by then is cancelled, which interrupts the blocked HTTP call.
+ * No call outlives {@link #runAll}: the executor is closed before it returns.
+ */
+@Component
+public class EnrichmentCoordinator {
+
+  private final long deadlineMillis;
+
+  public EnrichmentCoordinator(@Value("${app.enrichment.deadline-ms:20000}") long deadlineMillis) {
+    this.deadlineMillis = deadlineMillis;
+  }
+
+  /**
+   * Returns one completed future per call, in the same order. A call that ran into the deadline
+   * is in state {@link Future.State#CANCELLED}.
+   */
+  public <T> List<Future<T>> runAll(List<? extends Callable<T>> calls) throws InterruptedException {
+    try (ExecutorService executor = Executors.newThreadPerTaskExecutor(
+        Thread.ofVirtual().name("enrichment-call-", 1).factory())) {
+      return executor.invokeAll(calls, deadlineMillis, TimeUnit.MILLISECONDS);
+    }
+  }
+}
@@ -0,0 +1,14 @@
+package com.recipebook.service;
+
+/**
+ * A claimed row of the enrichment outbox. {@code attempts} already counts the current run.
+ */
+public record EnrichmentJob(long id, long recipeId, Kind kind, int revision, int attempts) {
+
+  public enum Kind {
+    /** Looks up a stock photo for a recipe created without an image. */
+    IMAGE,
+    /** Recalculates nutrition from the current ingredients. */
+    NUTRITION
+  }
+}
@@ -0,0 +1,72 @@
+package com.recipebook.service;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The enrichment outbox table. {@link #enqueue} joins the caller's transaction, so a job exists
+ * exactly if the recipe write that requested it committed. Workers claim due jobs with
+ * {@code FOR UPDATE SKIP LOCKED} and lease them for {@link #LEASE_SECONDS}; a job whose worker died
+ * becomes due again once the lease has run out.
+ */
+@Service
+public class EnrichmentQueue {
+
+  static final int LEASE_SECONDS = 300;
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public EnrichmentQueue(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  public void enqueue(long recipeId, Set<EnrichmentJob.Kind> kinds) {
+    if (kinds.isEmpty()) return;
+    jdbcTemplate.batchUpdate(
+        "INSERT INTO enrichment_jobs (recipe_id, kind) VALUES (?, ?) " +
+        "ON CONFLICT (recipe_id, kind) DO UPDATE SET revision = enrichment_jobs.revision + 1, " +
+        "attempts = 0, run_after = CURRENT_TIMESTAMP, last_error = NULL",
+        kinds.stream().map(kind -> new Object[] {recipeId, kind.name()}).toList());
+  }
+
+  /**
+   * Claims the due jobs of up to {@code limit} recipes, oldest first. The jobs of one recipe are
+   * claimed together so their lookups can run side by side. Rows locked by a concurrent claim are
+   * skipped instead of waited for, so several workers or instances never get the same job.
+   */
+  public List<EnrichmentJob> claim(int limit) {
+    return jdbcTemplate.query(
+        "UPDATE enrichment_jobs SET attempts = attempts + 1, " +
+        "run_after = CURRENT_TIMESTAMP + make_interval(secs => ?) " +
+        "WHERE id IN (SELECT id FROM enrichment_jobs WHERE run_after <= CURRENT_TIMESTAMP " +
+        "AND recipe_id IN (SELECT recipe_id FROM enrichment_jobs WHERE run_after <= CURRENT_TIMESTAMP " +
+        "GROUP BY recipe_id ORDER BY MIN(run_after) LIMIT ?) FOR UPDATE SKIP LOCKED) " +
+        "RETURNING id, recipe_id, kind, revision, attempts",
+        (rs, rowNum) -> new EnrichmentJob(rs.getLong("id"), rs.getLong("recipe_id"),
+            EnrichmentJob.Kind.valueOf(rs.getString("kind")), rs.getInt("revision"), rs.getInt("attempts")),
+        LEASE_SECONDS, limit);
+  }
+
+  /**
+   * Removes a finished job unless it was requested again in the meantime. Returns whether it was removed.
+   */
+  public boolean remove(EnrichmentJob job) {
+    return jdbcTemplate.update("DELETE FROM enrichment_jobs WHERE id = ? AND revision = ?",
+        job.id(), job.revision()) > 0;
+  }
+
+  public boolean hasJobs(long recipeId) {
+    return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+        "SELECT EXISTS (SELECT 1 FROM enrichment_jobs WHERE recipe_id = ?)", Boolean.class, recipeId));
+  }
+
+  public void retryLater(EnrichmentJob job, long delaySeconds, String error) {
+    jdbcTemplate.update(
+        "UPDATE enrichment_jobs SET run_after = CURRENT_TIMESTAMP + make_interval(secs => ?), last_error = ? " +
+        "WHERE id = ? AND revision = ?",
+        delaySeconds, error, job.id(), job.revision());
+  }
+}
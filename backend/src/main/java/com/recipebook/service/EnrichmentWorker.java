@@ -0,0 +1,169 @@
+package com.recipebook.service;
+
+import com.recipebook.model.Recipe;
+import com.recipebook.repository.RecipeRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Processes the enrichment outbox. A single poller claims the due jobs of as many recipes as there
+ * are idle workers and hands each recipe to a virtual thread. The lookups of one recipe run side by
+ * side through {@link EnrichmentCoordinator}, without a transaction; only the write-backs through
+ * {@link RecipeService} open one. Failed or timed-out jobs are retried with exponential backoff and
+ * marked as failed after {@code app.enrichment.max-attempts}.
+ */
+@Component
+public class EnrichmentWorker {
+
+  private static final Logger log = LoggerFactory.getLogger(EnrichmentWorker.class);
+
+  static final long RETRY_BASE_SECONDS = 30;
+
+  private final EnrichmentQueue queue;
+  private final RecipeRepository recipeRepository;
+  private final RecipeService recipeService;
+  private final UnsplashService unsplashService;
+  private final NutritionService nutritionService;
+  private final EnrichmentCoordinator coordinator;
+  private final int maxAttempts;
+  private final long pollIntervalMillis;
+  private final Semaphore idleWorkers;
+  private final ExecutorService workers;
+  private final ScheduledExecutorService poller;
+
+  public EnrichmentWorker(EnrichmentQueue queue, RecipeRepository recipeRepository, RecipeService recipeService,
+      UnsplashService unsplashService, NutritionService nutritionService, EnrichmentCoordinator coordinator,
+      @Value("${app.enrichment.concurrency:2}") int concurrency,
+      @Value("${app.enrichment.max-attempts:5}") int maxAttempts,
+      @Value("${app.enrichment.poll-interval-ms:1000}") long pollIntervalMillis) {
+    this.queue = queue;
+    this.recipeRepository = recipeRepository;
+    this.recipeService = recipeService;
+    this.unsplashService = unsplashService;
+    this.nutritionService = nutritionService;
+    this.coordinator = coordinator;
+    this.maxAttempts = maxAttempts;
+    this.pollIntervalMillis = pollIntervalMillis;
+    // Bounds the recipes in flight, and with them the database connections the write-backs need
+    this.idleWorkers = new Semaphore(concurrency);
+    this.workers = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("enrichment-", 1).factory());
+    this.poller = Executors.newSingleThreadScheduledExecutor(r -> {
+      Thread thread = new Thread(r, "enrichment-poller");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void start() {
+    poller.scheduleWithFixedDelay(this::poll, 0, pollIntervalMillis, TimeUnit.MILLISECONDS);
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    poller.shutdownNow();
+    workers.shutdownNow();
+  }
+
+  void poll() {
+    try {
+      int idle = idleWorkers.availablePermits();
+      if (idle == 0) return;
+      Map<Long, List<EnrichmentJob>> jobsByRecipe = queue.claim(idle).stream()
+        .collect(Collectors.groupingBy(EnrichmentJob::recipeId, LinkedHashMap::new, Collectors.toList()));
+      for (List<EnrichmentJob> jobs : jobsByRecipe.values()) {
+        idleWorkers.acquireUninterruptibly();
+        workers.execute(() -> {
+          try {
+            process(jobs);
+          } finally {
+            idleWorkers.release();
+          }
+        });
+      }
+    } catch (RuntimeException e) {
+      // An exception would cancel the scheduled task, the next poll simply tries again
+      log.warn("Enrichment poll failed: {}", e.getMessage());
+    }
+  }
+
+  /**
+   * Runs the lookups for the jobs of one recipe and writes back each result that arrived in time.
+   */
+  void process(List<EnrichmentJob> jobs) {
+    Recipe recipe = recipeRepository.findWithIngredientsById(jobs.get(0).recipeId()).orElse(null);
+    // Deleted meanwhile, the job rows went with it
+    if (recipe == null) return;
+
+    List<Future<Runnable>> results;
+    try {
+      results = coordinator.runAll(jobs.stream().map(job -> lookup(job, recipe)).toList());
+    } catch (InterruptedException e) {
+      // Shutting down; once the lease has run out the jobs are claimed again
+      Thread.currentThread().interrupt();
+      return;
+    }
+
+    for (int i = 0; i < jobs.size(); i++) {
+      EnrichmentJob job = jobs.get(i);
+      Future<Runnable> result = results.get(i);
+      try {
+        switch (result.state()) {
+          case SUCCESS -> result.resultNow().run();
+          case CANCELLED -> retryOrGiveUp(job, "deadline exceeded");
+          default -> retryOrGiveUp(job, String.valueOf(result.exceptionNow().getMessage()));
+        }
+      } catch (RuntimeException e) {
+        retryOrGiveUp(job, e.getMessage());
+      }
+    }
+  }
+
+  /**
+   * The outbound call for a job. It returns the write-back instead of running it, so no database
+   * work happens on a call that may still be cancelled.
+   */
+  private Callable<Runnable> lookup(EnrichmentJob job, Recipe recipe) {
+    return switch (job.kind()) {
+      case IMAGE -> () -> {
+        String imageUrl = unsplashService.findImageUrl(recipe.getTitle());
+        return () -> recipeService.completeImageEnrichment(job, imageUrl);
+      };
+      case NUTRITION -> () -> {
+        NutritionService.NutritionResult nutrition = nutritionService.calculateNutrition(recipe.getIngredients());
+        return () -> recipeService.completeNutritionEnrichment(job, nutrition);
+      };
+    };
+  }
+
+  private void retryOrGiveUp(EnrichmentJob job, String error) {
+    if (job.attempts() >= maxAttempts) {
+      log.warn("Enrichment {} of recipe {} failed for good: {}", job.kind(), job.recipeId(), error);
+      recipeService.failEnrichment(job);
+    } else {
+      log.info("Enrichment {} of recipe {} failed, retrying: {}", job.kind(), job.recipeId(), error);
+      queue.retryLater(job, retryDelaySeconds(job.attempts()), error);
+    }
+  }
+
+  static long retryDelaySeconds(int attempts) {
+    return RETRY_BASE_SECONDS << Math.min(attempts - 1, 10);
+  }
+}
@@ -0,0 +1,127 @@
+package com.recipebook.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Content-addressed store for uploaded recipe images. Inline {@code data:} URLs are decoded once,
+ * written to disk under the SHA-256 of their bytes and referenced via {@code /api/images/{hash}.{ext}}.
+ */
+@Service
+public class ImageStorageService {
+
+  public static final String URL_PREFIX = "/api/images/";
+
+  private static final Pattern FILENAME_PATTERN = Pattern.compile("^[0-9a-f]{64}\\.(jpg|png|gif|webp)$");
+
+  private static final Map<String, String> EXTENSIONS = Map.of(
+    "image/jpeg", "jpg",
+    "image/jpg", "jpg",
+    "image/png", "png",
+    "image/gif", "gif",
+    "image/webp", "webp"
+  );
+
+  @Value("${app.images.dir:data/images}")
+  private String imageDir;
+
+  public boolean isDataUrl(String url) {
+    return url != null && url.startsWith("data:");
+  }
+
+  public boolean isStoredImageUrl(String url) {
+    return url != null && url.startsWith(URL_PREFIX);
+  }
+
+  /**
+   * Decodes a base64 {@code data:} URL, stores its bytes (once per distinct content) and returns
+   * the URL under which the image is served.
+   */
+  public String storeDataUrl(String dataUrl) {
+    int comma = dataUrl.indexOf(',');
+    if (comma < 0 || !dataUrl.substring(0, comma).endsWith(";base64")) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Ungültiges Bildformat.");
+    }
+    String mimeType = dataUrl.substring("data:".length(), comma - ";base64".length()).trim().toLowerCase();
+    String extension = EXTENSIONS.get(mimeType);
+    if (extension == null) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Bildtyp wird nicht unterstützt: " + mimeType);
+    }
+
+    byte[] bytes;
+    try {
+      bytes = Base64.getMimeDecoder().decode(dataUrl.substring(comma + 1));
+    } catch (IllegalArgumentException e) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Bild konnte nicht gelesen werden.");
+    }
+    return URL_PREFIX + store(bytes, extension);
+  }
+
+  /**
+   * Resolves a filename of the form {@code {hash}.{ext}} to the stored file, if it exists.
+   * Anything not matching that pattern is rejected so request paths can never escape the store.
+   */
+  public Optional<Path> resolve(String filename) {
+    if (filename == null || !FILENAME_PATTERN.matcher(filename).matches()) return Optional.empty();
+    Path path = baseDir().resolve(filename);
+    return Files.isRegularFile(path) ? Optional.of(path) : Optional.empty();
+  }
+
+  /**
+   * Finds the original image stored for a content hash, regardless of its extension.
+   */
+  public Optional<Path> findByHash(String hash) {
+    for (String extension : Set.copyOf(EXTENSIONS.values())) {
+      Optional<Path> path = resolve(hash + "." + extension);
+      if (path.isPresent()) return path;
+    }
+    return Optional.empty();
+  }
+
+  public Path baseDir() {
+    return Paths.get(imageDir).toAbsolutePath();
+  }
+
+  private String store(byte[] bytes, String extension) {
+    String filename = sha256(bytes) + "." + extension;
+    try {
+      Path dir = Files.createDirectories(baseDir());
+      Path target = dir.resolve(filename);
+      if (Files.exists(target)) return filename;
+      Path tmp = Files.createTempFile(dir, ".upload-", ".tmp");
+      try {
+        Files.write(tmp, bytes);
+        Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+      } finally {
+        Files.deleteIfExists(tmp);
+      }
+      return filename;
+    } catch (IOException e) {
+      throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Bild konnte nicht gespeichert werden.", e);
+    }
+  }
+
+  private static String sha256(byte[] bytes) {
+    try {
+      return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -0,0 +1,212 @@
+package com.recipebook.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Generates fixed-width JPEG thumbnails of stored images. Variants live next to their original as
+ * {@code {hash}-{width}.jpg}, so once generated a request for them is a plain file read. Rendering
+ * decodes the full original and only ever runs on a small bounded executor, never on a request
+ * thread.
+ */
+@Service
+public class ImageVariantService {
+
+  private static final Logger log = LoggerFactory.getLogger(ImageVariantService.class);
+
+  public static final int CARD_WIDTH = 640;
+  /** Only widths something links to; the cards show one size, 640 also covers 2x screens. */
+  public static final int[] WIDTHS = {CARD_WIDTH};
+
+  private static final Pattern STORED_URL_PATTERN = Pattern.compile("^" + ImageStorageService.URL_PREFIX + "([0-9a-f]{64})\\.[a-z]+$");
+  private static final Pattern VARIANT_PATTERN = Pattern.compile("^([0-9a-f]{64})-(\\d+)\\.jpg$");
+  private static final String UNSPLASH_HOST = "images.unsplash.com";
+  private static final float JPEG_QUALITY = 0.8f;
+
+  private final ImageStorageService imageStorageService;
+  private final ThreadPoolExecutor executor;
+  /** Variants queued or rendering, so repeated requests for a missing variant queue it only once. */
+  private final Set<String> queued = ConcurrentHashMap.newKeySet();
+
+  public ImageVariantService(ImageStorageService imageStorageService,
+      @Value("${app.images.variant-threads:2}") int threads,
+      @Value("${app.images.variant-queue-size:100}") int queueSize) {
+    this.imageStorageService = imageStorageService;
+    AtomicInteger counter = new AtomicInteger();
+    // Bounded: when the queue is full a variant is not queued, the next request for it queues it again
+    this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+      new ArrayBlockingQueue<>(queueSize),
+      r -> {
+        Thread thread = new Thread(r, "image-variant-" + counter.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+      },
+      new ThreadPoolExecutor.AbortPolicy());
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+
+  /**
+   * Returns the URL of the card-sized variant for an image URL. Stored images point to the
+   * generated JPEG variant, Unsplash images to Unsplash's own resizing, anything else to itself.
+   */
+  public String thumbnailUrl(String imageUrl) {
+    if (imageUrl == null || imageUrl.isBlank()) return null;
+    Matcher stored = STORED_URL_PATTERN.matcher(imageUrl);
+    if (stored.matches()) {
+      return ImageStorageService.URL_PREFIX + variantFilename(stored.group(1), CARD_WIDTH);
+    }
+    if (imageUrl.startsWith("https://" + UNSPLASH_HOST + "/")) {
+      return UriComponentsBuilder.fromHttpUrl(imageUrl)
+        .replaceQueryParam("w", CARD_WIDTH)
+        .build(true)
+        .toUriString();
+    }
+    return imageUrl;
+  }
+
+  /**
+   * Queues generation of all variants of a stored image on the background executor.
+   */
+  public void generateAsync(String imageUrl) {
+    if (imageUrl == null) return;
+    Matcher stored = STORED_URL_PATTERN.matcher(imageUrl);
+    if (!stored.matches()) return;
+    for (int width : WIDTHS) {
+      String filename = variantFilename(stored.group(1), width);
+      if (Files.exists(imageStorageService.baseDir().resolve(filename))) continue;
+      queue(stored.group(1), width);
+    }
+  }
+
+  /**
+   * Resolves a variant filename to its file if the variant exists. A missing variant is queued for
+   * generation and empty is returned, as for unknown names and originals that cannot be decoded
+   * (e.g. WebP).
+   */
+  public Optional<Path> resolveVariant(String filename) {
+    Matcher matcher = VARIANT_PATTERN.matcher(filename);
+    if (!matcher.matches()) return Optional.empty();
+    int width = Integer.parseInt(matcher.group(2));
+    if (!isSupportedWidth(width)) return Optional.empty();
+
+    Path path = imageStorageService.baseDir().resolve(filename);
+    if (Files.isRegularFile(path)) return Optional.of(path);
+    queue(matcher.group(1), width);
+    return Optional.empty();
+  }
+
+  /**
+   * Extracts the content hash from a variant filename.
+   */
+  public Optional<String> originalHash(String filename) {
+    Matcher matcher = VARIANT_PATTERN.matcher(filename);
+    return matcher.matches() ? Optional.of(matcher.group(1)) : Optional.empty();
+  }
+
+  private void queue(String hash, int width) {
+    String filename = variantFilename(hash, width);
+    if (!queued.add(filename)) return;
+    try {
+      executor.execute(() -> generate(hash, width, filename));
+    } catch (RejectedExecutionException e) {
+      queued.remove(filename);
+    }
+  }
+
+  private void generate(String hash, int width, String filename) {
+    try {
+      render(hash, width, filename);
+    } catch (Exception e) {
+      log.warn("Could not create image variant {}: {}", filename, e.getMessage());
+    } finally {
+      queued.remove(filename);
+    }
+  }
+
+  private Path render(String hash, int width, String filename) throws IOException {
+    Path target = imageStorageService.baseDir().resolve(filename);
+    if (Files.isRegularFile(target)) return target;
+    Path original = imageStorageService.findByHash(hash).orElse(null);
+    if (original == null) return null;
+
+    BufferedImage source = ImageIO.read(original.toFile());
+    if (source == null) return null;
+
+    int targetWidth = Math.min(width, source.getWidth());
+    int targetHeight = Math.max(1, Math.round((float) source.getHeight() * targetWidth / source.getWidth()));
+    BufferedImage scaled = new BufferedImage(targetWidth, targetHeight, BufferedImage.TYPE_INT_RGB);
+    Graphics2D g = scaled.createGraphics();
+    try {
+      g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+      g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+      g.drawImage(source, 0, 0, targetWidth, targetHeight, Color.WHITE, null);
+    } finally {
+      g.dispose();
+    }
+
+    Path tmp = Files.createTempFile(target.getParent(), ".variant-", ".tmp");
+    try {
+      writeJpeg(scaled, tmp);
+      Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(tmp);
+    }
+    return target;
+  }
+
+  private static void writeJpeg(BufferedImage image, Path path) throws IOException {
+    ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+    try (ImageOutputStream out = ImageIO.createImageOutputStream(path.toFile())) {
+      writer.setOutput(out);
+      ImageWriteParam param = writer.getDefaultWriteParam();
+      param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+      param.setCompressionQuality(JPEG_QUALITY);
+      writer.write(null, new IIOImage(image, null, null), param);
+    } finally {
+      writer.dispose();
+    }
+  }
+
+  private static boolean isSupportedWidth(int width) {
+    for (int w : WIDTHS) {
+      if (w == width) return true;
+    }
+    return false;
+  }
+
+  private static String variantFilename(String hash, int width) {
+    return hash + "-" + width + ".jpg";
+  }
+}
@@ -0,0 +1,104 @@
+package com.recipebook.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Registry of lookups that are running right now, so concurrent callers asking for the same key
+ * share one lookup and its result instead of each sending their own. A caller loads the keys
+ * nobody else is loading, hands the results to the callers sharing them, stores them and only then
+ * waits for the keys it shares. Two callers waiting for each other's keys therefore cannot
+ * deadlock, not even when storing blocks on a row the other one has written. When a lookup fails,
+ * the callers sharing it fail as well instead of going on without its keys.
+ * <p>
+ * Inside a transaction a key stays registered until the transaction has completed: the results
+ * are stored in that transaction, and a caller arriving before the commit would not find them in
+ * the database yet.
+ */
+public class InFlightLookups<V> {
+
+  private final Map<String, CompletableFuture<V>> running = new ConcurrentHashMap<>();
+
+  /**
+   * Results for {@code keys}, missing keys have no result. {@code loader} is called with the keys
+   * this caller has to load itself, if any, and returns its results by key; {@code store} is then
+   * called with these results, other callers' results are stored by them.
+   *
+   * @throws LookupFailedException if a lookup of another caller this one shares has failed, or the
+   *     wait for it was interrupted. A failure of {@code loader} itself is rethrown as it is.
+   */
+  public Map<String, V> load(Collection<String> keys, Function<List<String>, Map<String, V>> loader,
+      Consumer<Map<String, V>> store) {
+    Map<String, CompletableFuture<V>> own = new LinkedHashMap<>();
+    Map<String, CompletableFuture<V>> shared = new HashMap<>();
+    for (String key : keys) {
+      if (own.containsKey(key) || shared.containsKey(key)) continue;
+      CompletableFuture<V> future = new CompletableFuture<>();
+      CompletableFuture<V> other = running.putIfAbsent(key, future);
+      if (other == null) {
+        own.put(key, future);
+      } else {
+        shared.put(key, other);
+      }
+    }
+
+    Map<String, V> results = new HashMap<>();
+    try {
+      if (!own.isEmpty()) results.putAll(loader.apply(new ArrayList<>(own.keySet())));
+    } catch (RuntimeException | Error e) {
+      // Nothing was stored, the next caller may try again right away
+      own.forEach((key, future) -> future.completeExceptionally(e));
+      own.forEach(running::remove);
+      throw e;
+    }
+    own.forEach((key, future) -> future.complete(results.get(key)));
+    try {
+      if (!results.isEmpty()) store.accept(results);
+    } finally {
+      // Only once stored, a caller arriving in between would otherwise look the keys up again
+      release(own);
+    }
+
+    for (Map.Entry<String, CompletableFuture<V>> entry : shared.entrySet()) {
+      V result = await(entry.getValue());
+      if (result != null) results.put(entry.getKey(), result);
+    }
+    return results;
+  }
+
+  private void release(Map<String, CompletableFuture<V>> own) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCompletion(int status) {
+          own.forEach(running::remove);
+        }
+      });
+    } else {
+      own.forEach(running::remove);
+    }
+  }
+
+  private static <V> V await(CompletableFuture<V> future) {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new LookupFailedException("interrupted while waiting for a shared lookup", e);
+    } catch (ExecutionException e) {
+      throw new LookupFailedException(e.getCause().getMessage(), e.getCause());
+    }
+  }
+}
@@ -0,0 +1,83 @@
+package com.recipebook.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Base for the in-memory recipe indexes. Builds the index from the database once the application is
+ * ready and keeps it current from {@link RecipeSavedEvent} and {@link RecipeDeletedEvent}, which
+ * are applied after commit so rolled-back writes never show up. Subclasses only implement the
+ * data structure; all mutation happens under the write lock, queries go through {@link #read}.
+ */
+public abstract class InMemoryRecipeIndex {
+
+  private final Logger log = LoggerFactory.getLogger(getClass());
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private final IndexedRecipeLoader loader;
+
+  protected InMemoryRecipeIndex(IndexedRecipeLoader loader) {
+    this.loader = loader;
+  }
+
+  /**
+   * Rebuilds the index from the database. The write lock is held while loading, so a change
+   * committed meanwhile is applied after the rebuild instead of being overwritten by it.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void rebuild() {
+    lock.writeLock().lock();
+    try {
+      List<IndexedRecipe> recipes = loader.loadAll();
+      clear();
+      recipes.forEach(this::add);
+      log.info("{} built from {} recipes", getClass().getSimpleName(), recipes.size());
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onSaved(RecipeSavedEvent event) {
+    lock.writeLock().lock();
+    try {
+      remove(event.recipe().id());
+      add(event.recipe());
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onDeleted(RecipeDeletedEvent event) {
+    lock.writeLock().lock();
+    try {
+      remove(event.recipeId());
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  protected <T> T read(Supplier<T> query) {
+    lock.readLock().lock();
+    try {
+      return query.get();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  protected abstract void clear();
+
+  protected abstract void add(IndexedRecipe recipe);
+
+  /** Removes a recipe; must tolerate ids that are not indexed. */
+  protected abstract void remove(long recipeId);
+}
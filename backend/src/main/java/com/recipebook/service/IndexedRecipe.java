@@ -0,0 +1,28 @@
+package com.recipebook.service;
+
+import com.recipebook.model.Ingredient;
+import com.recipebook.model.Recipe;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The part of a recipe the in-memory search indexes work on, detached from JPA so it can be handed
+ * to index listeners after the transaction has ended.
+ */
+public record IndexedRecipe(long id, String title, String source, String author,
+    List<String> ingredientNames, List<String> units) {
+
+  public static IndexedRecipe of(Recipe recipe) {
+    List<String> names = new ArrayList<>();
+    List<String> units = new ArrayList<>();
+    if (recipe.getIngredients() != null) {
+      for (Ingredient ingredient : recipe.getIngredients()) {
+        if (ingredient.getName() != null && !ingredient.getName().isBlank()) names.add(ingredient.getName());
+        if (ingredient.getUnit() != null && !ingredient.getUnit().isBlank()) units.add(ingredient.getUnit());
+      }
+    }
+    return new IndexedRecipe(recipe.getId(), recipe.getTitle(), recipe.getSource(), recipe.getAuthor(),
+        List.copyOf(names), List.copyOf(units));
+  }
+}
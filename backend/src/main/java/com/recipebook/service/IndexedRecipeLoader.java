@@ -0,0 +1,46 @@
+package com.recipebook.service;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads all recipes in the shape the in-memory indexes need, with two plain queries and without
+ * loading entities.
+ */
+@Service
+public class IndexedRecipeLoader {
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public IndexedRecipeLoader(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  @Transactional(readOnly = true)
+  public List<IndexedRecipe> loadAll() {
+    Map<Long, String[]> recipes = new LinkedHashMap<>();
+    jdbcTemplate.query("SELECT id, title, source, author FROM recipes ORDER BY id", rs -> {
+      recipes.put(rs.getLong("id"), new String[] {rs.getString("title"), rs.getString("source"), rs.getString("author")});
+    });
+    Map<Long, List<String>> names = new LinkedHashMap<>();
+    Map<Long, List<String>> units = new LinkedHashMap<>();
+    jdbcTemplate.query("SELECT recipe_id, name, unit FROM ingredients ORDER BY recipe_id, id", rs -> {
+      long recipeId = rs.getLong("recipe_id");
+      String name = rs.getString("name");
+      String unit = rs.getString("unit");
+      if (name != null && !name.isBlank()) names.computeIfAbsent(recipeId, k -> new ArrayList<>()).add(name);
+      if (unit != null && !unit.isBlank()) units.computeIfAbsent(recipeId, k -> new ArrayList<>()).add(unit);
+    });
+
+    List<IndexedRecipe> result = new ArrayList<>(recipes.size());
+    recipes.forEach((id, fields) -> result.add(new IndexedRecipe(id, fields[0], fields[1], fields[2],
+        List.copyOf(names.getOrDefault(id, List.of())), List.copyOf(units.getOrDefault(id, List.of())))));
+    return result;
+  }
+}
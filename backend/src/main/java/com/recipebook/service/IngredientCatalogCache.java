@@ -0,0 +1,164 @@
+package com.recipebook.service;
+
+import com.recipebook.model.IngredientAlias;
+import com.recipebook.model.IngredientCatalog;
+import com.recipebook.repository.IngredientAliasRepository;
+import com.recipebook.repository.IngredientCatalogRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * The ingredient catalog in memory, keyed by {@link IngredientCatalog#lookupKey}, so a nutrition
+ * calculation needs no catalog queries. Loaded once the application is ready. Adding looked-up
+ * entries calls {@link #refresh} and reloads only their match keys; bulk changes by an admin call
+ * {@link #invalidate} and the next lookup reloads the whole catalog and the learned aliases. An
+ * alias adds the entries of its target under its own key. The entries are detached entities shared
+ * between threads and must not be modified.
+ * <p>
+ * With {@code app.nutrition.catalog-cache=false} nothing is held in memory and every lookup is a
+ * single query through {@link IngredientCatalogRepository#findAllByLookupKey}.
+ */
+@Service
+public class IngredientCatalogCache {
+
+  private static final Logger log = LoggerFactory.getLogger(IngredientCatalogCache.class);
+
+  private record Snapshot(long version, Map<String, IngredientCatalog> entries) {}
+
+  private final IngredientCatalogRepository repository;
+  private final IngredientAliasRepository aliasRepository;
+  private final boolean enabled;
+  private final AtomicLong version = new AtomicLong();
+  private volatile Snapshot snapshot;
+
+  public IngredientCatalogCache(IngredientCatalogRepository repository, IngredientAliasRepository aliasRepository,
+      @Value("${app.nutrition.catalog-cache:true}") boolean enabled) {
+    this.repository = repository;
+    this.aliasRepository = aliasRepository;
+    this.enabled = enabled;
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void load() {
+    if (!enabled) return;
+    log.info("Ingredient catalog cache loaded with {} entries", entries().size());
+  }
+
+  /**
+   * Catalog entries for the given ingredient names and units, keyed by
+   * {@link IngredientCatalog#lookupKey}. The map may contain entries that were not asked for.
+   */
+  public Map<String, IngredientCatalog> findAll(Collection<String> names, Collection<String> units) {
+    return enabled ? entries() : repository.findAllByLookupKey(names, units);
+  }
+
+  /**
+   * Marks the cache as outdated. Inside a transaction this happens after commit, so a concurrent
+   * reload can never cache the catalog as it was before the write.
+   */
+  public void invalidate() {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          version.incrementAndGet();
+        }
+      });
+    } else {
+      version.incrementAndGet();
+    }
+  }
+
+  /**
+   * Reloads the entries of the given match keys and of the aliases pointing to them, instead of
+   * the whole catalog. Inside a transaction this happens after commit. The map is copied, not
+   * changed, so a running calculation keeps seeing one consistent catalog.
+   */
+  public void refresh(Collection<String> matchKeys) {
+    if (!enabled) return;
+    Set<String> keys = matchKeys.stream().filter(key -> !key.isEmpty()).collect(Collectors.toSet());
+    if (keys.isEmpty()) return;
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          reload(keys);
+        }
+      });
+    } else {
+      reload(keys);
+    }
+  }
+
+  private synchronized void reload(Set<String> keys) {
+    Snapshot current = snapshot;
+    // Not loaded yet or outdated anyway, the next lookup loads everything
+    if (current == null || current.version() != version.get()) return;
+    List<IngredientAlias> related = aliasRepository.findByMatchKeyInOrTargetKeyIn(keys, keys);
+    Set<String> affected = new HashSet<>(keys);
+    related.stream().filter(alias -> keys.contains(alias.getTargetKey())).forEach(alias -> affected.add(alias.getMatchKey()));
+    List<IngredientAlias> aliases = related.stream().filter(alias -> affected.contains(alias.getMatchKey())).toList();
+    Set<String> needed = new HashSet<>(affected);
+    aliases.forEach(alias -> needed.add(alias.getTargetKey()));
+
+    Map<String, IngredientCatalog> entries = new HashMap<>(current.entries());
+    entries.keySet().removeIf(key -> affected.contains(key.substring(0, key.indexOf('\n'))));
+    index(entries, repository.findByMatchKeyInOrderByIdAsc(needed), aliases);
+    snapshot = new Snapshot(current.version(), Map.copyOf(entries));
+  }
+
+  private Map<String, IngredientCatalog> entries() {
+    Snapshot current = snapshot;
+    if (current != null && current.version() == version.get()) return current.entries();
+    synchronized (this) {
+      long loadVersion = version.get();
+      current = snapshot;
+      if (current != null && current.version() == loadVersion) return current.entries();
+      Map<String, IngredientCatalog> entries = new HashMap<>();
+      index(entries, repository.findAll(Sort.by("id")), aliasRepository.findAll());
+      Map<String, IngredientCatalog> loaded = Map.copyOf(entries);
+      // A write committed while we were loading, use the result once but do not keep it
+      if (version.get() == loadVersion) snapshot = new Snapshot(loadVersion, loaded);
+      return loaded;
+    }
+  }
+
+  /**
+   * Adds {@code rows}, ordered by id, under their own keys and under the keys of {@code aliases}.
+   * Keys already present are kept.
+   */
+  private static void index(Map<String, IngredientCatalog> entries, List<IngredientCatalog> rows,
+      Collection<IngredientAlias> aliases) {
+    Map<String, List<IngredientCatalog>> byMatchKey = new HashMap<>();
+    // Names with the same match key share a key, the oldest entry wins
+    for (IngredientCatalog entry : rows) {
+      // Nothing is looked up by an empty key
+      if (entry.getMatchKey().isEmpty()) continue;
+      entries.putIfAbsent(IngredientCatalog.keyOf(entry.getMatchKey(), entry.getUnit()), entry);
+      byMatchKey.computeIfAbsent(entry.getMatchKey(), key -> new ArrayList<>()).add(entry);
+    }
+    // An entry of the name itself wins over one found by an alias
+    for (IngredientAlias alias : aliases) {
+      for (IngredientCatalog entry : byMatchKey.getOrDefault(alias.getTargetKey(), List.of())) {
+        entries.putIfAbsent(IngredientCatalog.keyOf(alias.getMatchKey(), entry.getUnit()), entry);
+      }
+    }
+  }
+}
@@ -0,0 +1,65 @@
+package com.recipebook.service;
+
+import com.recipebook.model.IngredientCatalog;
+import com.recipebook.repository.IngredientAliasRepository;
+import com.recipebook.repository.IngredientCatalogRepository;
+import com.recipebook.util.IngredientNames;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Adds entries looked up at OpenAI to the catalog. Each entry is written in a short transaction
+ * of its own, the lookup before it runs without one, so no connection is held during the call.
+ */
+@Service
+public class IngredientCatalogWriter {
+
+  private final IngredientCatalogRepository catalogRepository;
+  private final IngredientAliasRepository aliasRepository;
+  private final IngredientCatalogCache catalogCache;
+
+  public IngredientCatalogWriter(IngredientCatalogRepository catalogRepository,
+      IngredientAliasRepository aliasRepository, IngredientCatalogCache catalogCache) {
+    this.catalogRepository = catalogRepository;
+    this.aliasRepository = aliasRepository;
+    this.catalogCache = catalogCache;
+  }
+
+  /**
+   * Adds {@code entry}, filed under {@code baseName} when OpenAI named a different basic
+   * ingredient. The entry itself is left as is, other calculations waiting for the same lookup
+   * share it.
+   */
+  @Transactional
+  public void add(IngredientCatalog entry, String baseName) {
+    String name = learnBaseName(entry, baseName);
+    catalogRepository.insertOrComplete(
+      name, IngredientNames.matchKey(name), entry.getUnit(),
+      entry.getNutritionKcal(),
+      entry.getNutritionFat(),
+      entry.getNutritionProtein(),
+      entry.getNutritionCarbs(),
+      entry.getNutritionFiber(),
+      entry.getDensity(),
+      entry.getPieceWeight()
+    );
+    // The entry's own key too, it may just have become an alias
+    catalogCache.refresh(List.of(IngredientNames.matchKey(name), entry.getMatchKey()));
+  }
+
+  /**
+   * The name to file the entry under. When OpenAI named a different basic ingredient that is the
+   * basic ingredient, and the entry's name is learned as its alias, so recipes using either name
+   * find the same catalog entry.
+   */
+  private String learnBaseName(IngredientCatalog entry, String baseName) {
+    if (baseName == null || baseName.isBlank()) return entry.getName();
+    String aliasKey = entry.getMatchKey();
+    String targetKey = IngredientNames.matchKey(baseName);
+    if (aliasKey.isEmpty() || targetKey.isEmpty() || targetKey.equals(aliasKey)) return entry.getName();
+    aliasRepository.learn(aliasKey, targetKey);
+    return baseName.trim();
+  }
+}
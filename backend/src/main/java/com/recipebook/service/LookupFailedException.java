@@ -0,0 +1,17 @@
+package com.recipebook.service;
+
+/**
+ * An outbound lookup (Unsplash, OpenAI) failed: the service was unreachable, answered with an
+ * error status or sent something unreadable. Unlike an empty result, trying again later may help,
+ * so enrichment jobs are retried on it.
+ */
+public class LookupFailedException extends RuntimeException {
+
+  public LookupFailedException(String message, Throwable cause) {
+    super(message, cause);
+  }
+
+  public LookupFailedException(String message) {
+    super(message);
+  }
+}
@@ -4,20 +4,23 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.recipebook.model.Ingredient;
 import com.recipebook.model.IngredientCatalog;
-import com.recipebook.repository.IngredientCatalogRepository;
+import com.recipebook.util.IngredientNames;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.reactive.function.client.WebClient;
-import reactor.core.publisher.Mono;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class NutritionService {
@@ -30,118 +33,186 @@ public class NutritionService {
 
   private final WebClient webClient;
   private final ObjectMapper objectMapper;
-  private final IngredientCatalogRepository catalogRepository;
-
-  public NutritionService(ObjectMapper objectMapper, IngredientCatalogRepository catalogRepository) {
+  private final IngredientCatalogCache catalogCache;
+  private final IngredientCatalogWriter catalogWriter;
+  private final UnitConverter unitConverter;
+  private final InFlightLookups<Fetched> openAiLookups = new InFlightLookups<>();
+
+  public NutritionService(ObjectMapper objectMapper, IngredientCatalogCache catalogCache,
+      IngredientCatalogWriter catalogWriter, UnitConverter unitConverter,
+      @Value("${openai.base-url:https://api.openai.com}") String baseUrl) {
     this.webClient = WebClient.builder()
-      .baseUrl("https://api.openai.com")
+      .baseUrl(baseUrl)
       .codecs(configurer -> configurer.defaultCodecs().maxInMemorySize(10 * 1024 * 1024))
       .build();
     this.objectMapper = objectMapper;
-    this.catalogRepository = catalogRepository;
+    this.catalogCache = catalogCache;
+    this.catalogWriter = catalogWriter;
+    this.unitConverter = unitConverter;
   }
 
-  @Transactional
+  /**
+   * Sums the nutrition values of all ingredients with a parsable amount and unit. An ingredient is
+   * matched by its {@link IngredientNames#matchKey} and learned aliases to the catalog entry of its
+   * own unit, or else converted by {@link UnitConverter} to an entry of the same ingredient in
+   * grams, millilitres or pieces. Ingredients still missing are looked up at OpenAI per gram,
+   * together with density and piece weight, so the new entry serves every unit of the ingredient.
+   * When OpenAI names a different basic ingredient, the entry is filed under that name and the
+   * ingredient's name becomes an alias of it. A lookup another calculation is already running is
+   * not sent again, both use its result or fail with it.
+   *
+   * <p>
+   * Runs without a transaction: the catalog is read from the cache, and only writing a looked-up
+   * entry opens a short one, so no connection is held while OpenAI answers.
+   *
+   * @throws LookupFailedException if ingredients are missing and OpenAI fails, rather than returning
+   *     a total without them. Entries already added to the catalog are kept.
+   */
   public NutritionResult calculateNutrition(List<Ingredient> ingredients) {
     if (ingredients == null || ingredients.isEmpty()) return null;
 
-    double totalKcal = 0, totalFat = 0, totalProtein = 0, totalCarbs = 0, totalFiber = 0;
-    boolean hasAnyValue = false;
+    Totals totals = new Totals();
     List<Ingredient> missing = new ArrayList<>();
 
-    for (Ingredient ingredient : ingredients) {
-      String name = ingredient.getName();
-      String unit = ingredient.getUnit();
-      String amountStr = ingredient.getAmount();
-
-      if (name == null || name.isBlank()) continue;
-      if (unit == null || unit.isBlank()) continue;
-
-      Double amount = parseAmount(amountStr);
-      if (amount == null) continue;
-
-      String normalizedUnit = unit.trim();
-      Optional<IngredientCatalog> catalogEntry = catalogRepository.findByNameIgnoreCaseAndUnit(name.trim(), normalizedUnit);
-
-      if (catalogEntry.isPresent()) {
-        IngredientCatalog entry = catalogEntry.get();
-        if (entry.getNutritionKcal() != null) { totalKcal += entry.getNutritionKcal() * amount; hasAnyValue = true; }
-        if (entry.getNutritionFat() != null) { totalFat += entry.getNutritionFat() * amount; hasAnyValue = true; }
-        if (entry.getNutritionProtein() != null) { totalProtein += entry.getNutritionProtein() * amount; hasAnyValue = true; }
-        if (entry.getNutritionCarbs() != null) { totalCarbs += entry.getNutritionCarbs() * amount; hasAnyValue = true; }
-        if (entry.getNutritionFiber() != null) { totalFiber += entry.getNutritionFiber() * amount; hasAnyValue = true; }
+    List<Ingredient> usable = ingredients.stream()
+      // A name without letters or digits matches nothing and is not worth a lookup
+      .filter(i -> !IngredientNames.matchKey(i.getName()).isEmpty())
+      .filter(i -> i.getUnit() != null && !i.getUnit().isBlank())
+      .filter(i -> parseAmount(i.getAmount()) != null)
+      .toList();
+    Map<String, IngredientCatalog> catalog = catalogCache.findAll(
+      usable.stream().map(Ingredient::getName).toList(),
+      Stream.concat(usable.stream().map(Ingredient::getUnit),
+        Stream.of(UnitConverter.GRAM, UnitConverter.MILLILITER, UnitConverter.PIECE)).toList());
+
+    for (Ingredient ingredient : usable) {
+      Optional<Match> match = match(ingredient, catalog::get);
+      if (match.isPresent()) {
+        totals.add(match.get().entry(), match.get().amount());
       } else {
         missing.add(ingredient);
       }
     }
 
     if (!missing.isEmpty() && apiKey != null && !apiKey.isBlank()) {
-      List<IngredientCatalog> aiEntries = fetchFromOpenAi(missing);
-
-      for (IngredientCatalog aiEntry : aiEntries) {
-        if (aiEntry.getNutritionKcal() == null && aiEntry.getNutritionFat() == null
-          && aiEntry.getNutritionProtein() == null && aiEntry.getNutritionCarbs() == null
-          && aiEntry.getNutritionFiber() == null) {
-          nutritionWarnLog.warn("Keine Nährwerte von OpenAI erhalten für: {} {}", aiEntry.getName(), aiEntry.getUnit());
-          continue;
-        }
+      Map<String, IngredientCatalog> requests = new LinkedHashMap<>();
+      for (Ingredient ingredient : missing) {
+        String unit = unitConverter.toBase(1, ingredient.getUnit()).isPresent() ? UnitConverter.GRAM : ingredient.getUnit().trim();
+        requests.putIfAbsent(IngredientCatalog.lookupKey(ingredient.getName(), unit),
+          new IngredientCatalog(ingredient.getName().trim(), unit, null, null, null, null, null));
+      }
+      // Recipes saved at the same time often miss the same ingredient, it is looked up only once
+      Map<String, Fetched> fetched = openAiLookups.load(requests.keySet(),
+        keys -> {
+          Map<String, IngredientCatalog> own = new LinkedHashMap<>(requests);
+          own.keySet().retainAll(keys);
+          return lookUp(own);
+        },
+        results -> results.values().forEach(this::saveToCatalog));
+      Map<String, IngredientCatalog> answers = new HashMap<>();
+      for (String key : requests.keySet()) {
+        if (fetched.containsKey(key)) answers.put(key, fetched.get(key).entry());
+      }
 
-        boolean allZero = isZeroOrNull(aiEntry.getNutritionKcal())
-          && isZeroOrNull(aiEntry.getNutritionFat())
-          && isZeroOrNull(aiEntry.getNutritionProtein())
-          && isZeroOrNull(aiEntry.getNutritionCarbs())
-          && isZeroOrNull(aiEntry.getNutritionFiber());
-        if (allZero) {
-          nutritionWarnLog.warn("OpenAI hat nur Nullwerte zurückgegeben für: {} {}", aiEntry.getName(), aiEntry.getUnit());
-          continue;
+      for (Ingredient ingredient : missing) {
+        Optional<Match> match = match(ingredient, answers::get);
+        if (match.isPresent()) {
+          totals.add(match.get().entry(), match.get().amount());
+        } else {
+          nutritionWarnLog.warn("OpenAI hat keine verwertbare Antwort für Zutat geliefert: {} {}", ingredient.getName(), ingredient.getUnit());
         }
+      }
+    }
 
-        Ingredient matched = missing.stream()
-          .filter(i -> i.getName().trim().equalsIgnoreCase(aiEntry.getName())
-            && i.getUnit().trim().equalsIgnoreCase(aiEntry.getUnit()))
-          .findFirst().orElse(null);
+    if (!totals.hasAnyValue && missing.isEmpty()) return null;
+    return totals.toResult();
+  }
 
-        if (matched == null) {
-          nutritionWarnLog.warn("OpenAI hat unbekannte Zutat zurückgegeben (nicht in Eingabe): {} {}", aiEntry.getName(), aiEntry.getUnit());
-          saveToCatalog(aiEntry);
-          continue;
-        }
+  /**
+   * Looks up the requested entries at OpenAI. Returns the usable results by lookup key, including
+   * entries OpenAI returned without being asked for.
+   */
+  private Map<String, Fetched> lookUp(Map<String, IngredientCatalog> requests) {
+    List<Fetched> aiResults = fetchFromOpenAi(List.copyOf(requests.values()));
+    Map<String, Fetched> fetched = new HashMap<>();
+
+    for (Fetched aiResult : aiResults) {
+      IngredientCatalog aiEntry = aiResult.entry();
+      if (aiEntry.getNutritionKcal() == null && aiEntry.getNutritionFat() == null
+        && aiEntry.getNutritionProtein() == null && aiEntry.getNutritionCarbs() == null
+        && aiEntry.getNutritionFiber() == null) {
+        nutritionWarnLog.warn("Keine Nährwerte von OpenAI erhalten für: {} {}", aiEntry.getName(), aiEntry.getUnit());
+        continue;
+      }
 
-        Double amount = parseAmount(matched.getAmount());
-        if (amount == null) continue;
-        if (aiEntry.getNutritionKcal() != null) { totalKcal += aiEntry.getNutritionKcal() * amount; hasAnyValue = true; }
-        if (aiEntry.getNutritionFat() != null) { totalFat += aiEntry.getNutritionFat() * amount; hasAnyValue = true; }
-        if (aiEntry.getNutritionProtein() != null) { totalProtein += aiEntry.getNutritionProtein() * amount; hasAnyValue = true; }
-        if (aiEntry.getNutritionCarbs() != null) { totalCarbs += aiEntry.getNutritionCarbs() * amount; hasAnyValue = true; }
-        if (aiEntry.getNutritionFiber() != null) { totalFiber += aiEntry.getNutritionFiber() * amount; hasAnyValue = true; }
-        saveToCatalog(aiEntry);
+      boolean allZero = isZeroOrNull(aiEntry.getNutritionKcal())
+        && isZeroOrNull(aiEntry.getNutritionFat())
+        && isZeroOrNull(aiEntry.getNutritionProtein())
+        && isZeroOrNull(aiEntry.getNutritionCarbs())
+        && isZeroOrNull(aiEntry.getNutritionFiber());
+      if (allZero) {
+        nutritionWarnLog.warn("OpenAI hat nur Nullwerte zurückgegeben für: {} {}", aiEntry.getName(), aiEntry.getUnit());
+        continue;
       }
 
-      List<String> returnedNames = aiEntries.stream()
-        .map(e -> e.getName().trim().toLowerCase())
-        .toList();
-      for (Ingredient m : missing) {
-        if (!returnedNames.contains(m.getName().trim().toLowerCase())) {
-          nutritionWarnLog.warn("OpenAI hat keine Antwort für Zutat geliefert: {} {}", m.getName(), m.getUnit());
-        }
+      if (aiEntry.getMatchKey().isEmpty()) {
+        nutritionWarnLog.warn("OpenAI hat Zutat ohne verwertbaren Namen zurückgegeben: {} {}", aiEntry.getName(), aiEntry.getUnit());
+        continue;
       }
+
+      String key = IngredientCatalog.lookupKey(aiEntry.getName(), aiEntry.getUnit());
+      if (!requests.containsKey(key)) {
+        nutritionWarnLog.warn("OpenAI hat unbekannte Zutat zurückgegeben (nicht in Eingabe): {} {}", aiEntry.getName(), aiEntry.getUnit());
+      }
+      fetched.putIfAbsent(key, aiResult);
     }
+    return fetched;
+  }
 
-    if (!hasAnyValue && missing.isEmpty()) return null;
-    return new NutritionResult(totalKcal, totalFat, totalProtein, totalCarbs, totalFiber);
+  /** A catalog entry and the ingredient's amount in the entry's unit. */
+  private record Match(IngredientCatalog entry, double amount) {}
+
+  private Optional<Match> match(Ingredient ingredient, Function<String, IngredientCatalog> catalog) {
+    double amount = parseAmount(ingredient.getAmount());
+    IngredientCatalog exact = catalog.apply(IngredientCatalog.lookupKey(ingredient.getName(), ingredient.getUnit()));
+    if (exact != null) return Optional.of(new Match(exact, amount));
+
+    Optional<UnitConverter.Quantity> quantity = unitConverter.toBase(amount, ingredient.getUnit());
+    if (quantity.isEmpty()) return Optional.empty();
+    // An entry of the same dimension first, it needs neither density nor piece weight
+    List<UnitConverter.Dimension> dimensions = new ArrayList<>(List.of(UnitConverter.Dimension.values()));
+    dimensions.remove(quantity.get().dimension());
+    dimensions.add(0, quantity.get().dimension());
+    for (UnitConverter.Dimension dimension : dimensions) {
+      IngredientCatalog entry = catalog.apply(IngredientCatalog.lookupKey(ingredient.getName(), dimension.baseUnit()));
+      if (entry == null) continue;
+      OptionalDouble converted = unitConverter.convert(quantity.get(), dimension, entry.getDensity(), entry.getPieceWeight());
+      if (converted.isPresent()) return Optional.of(new Match(entry, converted.getAsDouble()));
+    }
+    return Optional.empty();
   }
 
-  private List<IngredientCatalog> fetchFromOpenAi(List<Ingredient> ingredients) {
+  /** An entry looked up at OpenAI and the basic ingredient it named for it. */
+  private record Fetched(IngredientCatalog entry, String baseName) {}
+
+  /**
+   * @throws LookupFailedException if OpenAI cannot be reached, answers with an error or its answer
+   *     cannot be read
+   */
+  private List<Fetched> fetchFromOpenAi(List<IngredientCatalog> ingredients) {
     try {
       String ingredientList = ingredients.stream()
-        .map(i -> "{\"name\": \"" + i.getName() + "\", \"amount\": \"" + i.getAmount() + "\", \"unit\": \"" + i.getUnit() + "\"}")
+        .map(i -> "{\"name\": \"" + i.getName() + "\", \"unit\": \"" + i.getUnit() + "\"}")
         .collect(Collectors.joining(", ", "[", "]"));
 
       String prompt = """
         Gib die Nährwerte pro 1 Einheit für jede der folgenden Zutaten zurück.
         Antworte NUR mit einem validen JSON-Array ohne Markdown-Codeblock:
-        [{"name": "Mehl", "unit": "g", "kcal": 3.4, "fat": 0.01, "protein": 0.1, "carbs": 0.72, "fiber": 0.03}]
+        [{"name": "Mehl", "unit": "g", "kcal": 3.4, "fat": 0.01, "protein": 0.1, "carbs": 0.72, "fiber": 0.03, "density": 0.55, "pieceWeight": null, "baseName": "Mehl"}]
         Alle Werte pro 1 Einheit (nicht pro Gesamtmenge), in Gramm außer kcal.
+        "density" ist die Dichte in g pro ml, "pieceWeight" das Gewicht eines Stücks in g, jeweils null wenn nicht sinnvoll.
+        "baseName" ist die Grundzutat im Singular ohne Zubereitung oder Menge, z.B. "Knoblauch" für "Knoblauchzehen", "Frühlingszwiebel" für "Lauchzwiebeln".
+        Nur eine Zutat mit denselben Nährwerten ist eine Grundzutat, sonst ist "baseName" der Name aus der Eingabe.
         Wichtig: Verwende für "name" und "unit" EXAKT die Werte aus der Eingabe. Keine Änderung der Schreibweise, kein Singular/Plural, keine Übersetzung.
         Zutaten: %s
         """.formatted(ingredientList);
@@ -160,22 +231,16 @@ public class NutritionService {
         .bodyValue(requestBody)
         .retrieve()
         .bodyToMono(String.class)
-        .onErrorResume(e -> {
-          log.warn("NutritionService HTTP error: {}", e.getMessage());
-          return Mono.empty();
-        })
         .blockOptional()
-        .orElse(null);
-
-      if (response == null) return List.of();
+        .orElseThrow(() -> new LookupFailedException("OpenAI: empty response"));
 
       JsonNode root = objectMapper.readTree(response);
       JsonNode content = root.path("choices").path(0).path("message").path("content");
-      if (content.isMissingNode()) return List.of();
+      if (content.isMissingNode()) throw new LookupFailedException("OpenAI: response without content");
       JsonNode array = objectMapper.readTree(content.asText());
-      if (!array.isArray()) return List.of();
+      if (!array.isArray()) throw new LookupFailedException("OpenAI: response is not a JSON array");
 
-      List<IngredientCatalog> result = new ArrayList<>();
+      List<Fetched> result = new ArrayList<>();
       for (JsonNode node : array) {
         IngredientCatalog entry = new IngredientCatalog();
         entry.setName(node.path("name").asText(null));
@@ -185,27 +250,30 @@ public class NutritionService {
         entry.setNutritionProtein(node.path("protein").isNull() ? null : node.path("protein").asDouble());
         entry.setNutritionCarbs(node.path("carbs").isNull() ? null : node.path("carbs").asDouble());
         entry.setNutritionFiber(node.path("fiber").isNull() ? null : node.path("fiber").asDouble());
-        if (entry.getName() != null && entry.getUnit() != null) result.add(entry);
+        entry.setDensity(node.path("density").isNumber() ? node.path("density").asDouble() : null);
+        entry.setPieceWeight(node.path("pieceWeight").isNumber() ? node.path("pieceWeight").asDouble() : null);
+        String baseName = node.path("baseName").isTextual() ? node.path("baseName").asText() : null;
+        if (entry.getName() != null && entry.getUnit() != null) result.add(new Fetched(entry, baseName));
       }
       return result;
+    } catch (LookupFailedException e) {
+      log.warn("NutritionService OpenAI error: {}", e.getMessage());
+      throw e;
     } catch (Exception e) {
       log.warn("NutritionService OpenAI error: {}", e.getMessage());
-      return List.of();
+      throw new LookupFailedException("OpenAI: " + e.getMessage(), e);
     }
   }
 
-  private void saveToCatalog(IngredientCatalog entry) {
+  /**
+   * Adds a looked-up entry to the catalog. A failed write only costs the entry, the calculation
+   * has its result already.
+   */
+  private void saveToCatalog(Fetched fetched) {
     try {
-      catalogRepository.insertIfAbsent(
-        entry.getName(), entry.getUnit(),
-        entry.getNutritionKcal(),
-        entry.getNutritionFat(),
-        entry.getNutritionProtein(),
-        entry.getNutritionCarbs(),
-        entry.getNutritionFiber()
-      );
-    } catch (Exception e) {
-      log.warn("Could not save ingredient to catalog: {} {}: {}", entry.getName(), entry.getUnit(), e.getMessage());
+      catalogWriter.add(fetched.entry(), fetched.baseName());
+    } catch (RuntimeException e) {
+      log.warn("Could not save ingredient to catalog: {} {}: {}", fetched.entry().getName(), fetched.entry().getUnit(), e.getMessage());
     }
   }
 
@@ -237,6 +305,23 @@ public class NutritionService {
     }
   }
 
+  private static class Totals {
+    private double kcal, fat, protein, carbs, fiber;
+    private boolean hasAnyValue;
+
+    void add(IngredientCatalog entry, double amount) {
+      if (entry.getNutritionKcal() != null) { kcal += entry.getNutritionKcal() * amount; hasAnyValue = true; }
+      if (entry.getNutritionFat() != null) { fat += entry.getNutritionFat() * amount; hasAnyValue = true; }
+      if (entry.getNutritionProtein() != null) { protein += entry.getNutritionProtein() * amount; hasAnyValue = true; }
+      if (entry.getNutritionCarbs() != null) { carbs += entry.getNutritionCarbs() * amount; hasAnyValue = true; }
+      if (entry.getNutritionFiber() != null) { fiber += entry.getNutritionFiber() * amount; hasAnyValue = true; }
+    }
+
+    NutritionResult toResult() {
+      return new NutritionResult(kcal, fat, protein, carbs, fiber);
+    }
+  }
+
   public static class NutritionResult {
     private final double kcal;
     private final double fat;
@@ -0,0 +1,123 @@
+package com.recipebook.service;
+
+import com.recipebook.dto.PantryMatchDto;
+import com.recipebook.util.IngredientNames;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Answers "what can I cook with this": an inverted index from ingredient match key to the
+ * sorted ids of the recipes using it. A query walks only the posting lists of the pantry items,
+ * counts hits per recipe and ranks by fewest missing ingredients, then by coverage.
+ */
+@Service
+public class PantryIndex extends InMemoryRecipeIndex {
+
+  private record Entry(String title, Map<String, String> ingredients) {}
+
+  private final Map<String, long[]> postings = new HashMap<>();
+  private final Map<Long, Entry> recipes = new HashMap<>();
+
+  public PantryIndex(IndexedRecipeLoader loader) {
+    super(loader);
+  }
+
+  /**
+   * Ranks recipes sharing at least one ingredient with {@code pantry}: complete recipes first, then
+   * by the number of missing ingredients and the share of ingredients on hand.
+   */
+  public List<PantryMatchDto> findCookable(List<String> pantry, int limit) {
+    Set<String> have = new LinkedHashSet<>();
+    for (String item : pantry) {
+      String key = IngredientNames.matchKey(item);
+      if (!key.isEmpty()) have.add(key);
+    }
+    if (have.isEmpty() || limit <= 0) return List.of();
+
+    return read(() -> {
+      Map<Long, Integer> matched = new HashMap<>();
+      for (String key : have) {
+        for (long recipeId : postings.getOrDefault(key, new long[0])) {
+          matched.merge(recipeId, 1, Integer::sum);
+        }
+      }
+      return matched.entrySet().stream()
+        .map(e -> toMatch(e.getKey(), e.getValue(), have))
+        .sorted(Comparator.comparingInt((PantryMatchDto m) -> m.getMissing().size())
+          .thenComparing(m -> (double) m.getMatchedCount() / m.getIngredientCount(), Comparator.reverseOrder())
+          .thenComparing(PantryMatchDto::getId, Comparator.reverseOrder()))
+        .limit(limit)
+        .toList();
+    });
+  }
+
+  private PantryMatchDto toMatch(long recipeId, int matchedCount, Set<String> have) {
+    Entry entry = recipes.get(recipeId);
+    List<String> missing = new ArrayList<>();
+    entry.ingredients().forEach((key, name) -> {
+      if (!have.contains(key)) missing.add(name);
+    });
+    return new PantryMatchDto(recipeId, entry.title(), matchedCount, entry.ingredients().size(), missing);
+  }
+
+  @Override
+  protected void clear() {
+    postings.clear();
+    recipes.clear();
+  }
+
+  @Override
+  protected void add(IndexedRecipe recipe) {
+    long id = recipe.id();
+    Map<String, String> ingredients = new LinkedHashMap<>();
+    for (String name : recipe.ingredientNames()) {
+      String key = IngredientNames.matchKey(name);
+      if (!key.isEmpty()) ingredients.putIfAbsent(key, name);
+    }
+    if (ingredients.isEmpty()) return;
+    recipes.put(id, new Entry(recipe.title(), ingredients));
+    for (String key : ingredients.keySet()) {
+      postings.put(key, insert(postings.getOrDefault(key, new long[0]), id));
+    }
+  }
+
+  @Override
+  protected void remove(long recipeId) {
+    Entry entry = recipes.remove(recipeId);
+    if (entry == null) return;
+    for (String key : entry.ingredients().keySet()) {
+      long[] remaining = delete(postings.get(key), recipeId);
+      if (remaining.length == 0) postings.remove(key);
+      else postings.put(key, remaining);
+    }
+  }
+
+  static long[] insert(long[] sorted, long value) {
+    int pos = Arrays.binarySearch(sorted, value);
+    if (pos >= 0) return sorted;
+    int at = -pos - 1;
+    long[] result = new long[sorted.length + 1];
+    System.arraycopy(sorted, 0, result, 0, at);
+    result[at] = value;
+    System.arraycopy(sorted, at, result, at + 1, sorted.length - at);
+    return result;
+  }
+
+  static long[] delete(long[] sorted, long value) {
+    int pos = Arrays.binarySearch(sorted, value);
+    if (pos < 0) return sorted;
+    long[] result = new long[sorted.length - 1];
+    System.arraycopy(sorted, 0, result, 0, pos);
+    System.arraycopy(sorted, pos + 1, result, pos, sorted.length - pos - 1);
+    return result;
+  }
+}
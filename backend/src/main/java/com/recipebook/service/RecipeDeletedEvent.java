@@ -0,0 +1,6 @@
+package com.recipebook.service;
+
+/**
+ * Published by {@link RecipeService} when a recipe was deleted.
+ */
+public record RecipeDeletedEvent(long recipeId) {}
@@ -0,0 +1,98 @@
+package com.recipebook.service;
+
+import com.recipebook.dto.RecipeDetailDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Least-recently-used cache of recipe details. Entries are dropped once a save or delete of the
+ * recipe has committed. A detail loaded while any invalidation happened is returned but not cached,
+ * so a read racing with a write can never pin the pre-commit state.
+ */
+@Service
+public class RecipeDetailCache {
+
+  private final Map<Long, RecipeDetailDto> entries;
+  private final AtomicLong invalidations = new AtomicLong();
+
+  public RecipeDetailCache(@Value("${app.recipes.detail-cache-size:500}") int maxEntries) {
+    this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Long, RecipeDetailDto> eldest) {
+        return size() > maxEntries;
+      }
+    };
+  }
+
+  public Optional<RecipeDetailDto> get(Long id, Supplier<Optional<RecipeDetailDto>> loader) {
+    synchronized (entries) {
+      RecipeDetailDto cached = entries.get(id);
+      if (cached != null) return Optional.of(cached);
+    }
+    long before = invalidations.get();
+    Optional<RecipeDetailDto> loaded = loader.get();
+    loaded.ifPresent(detail -> {
+      synchronized (entries) {
+        if (invalidations.get() == before) entries.put(id, detail);
+      }
+    });
+    return loaded;
+  }
+
+  /**
+   * Details for several recipes keyed by id. All ids not in the cache are handed to the loader in
+   * one call; ids it does not return are missing from the result.
+   */
+  public Map<Long, RecipeDetailDto> getAll(Collection<Long> ids,
+      Function<List<Long>, List<RecipeDetailDto>> loader) {
+    Map<Long, RecipeDetailDto> result = new HashMap<>();
+    List<Long> missing = new ArrayList<>();
+    synchronized (entries) {
+      for (Long id : ids) {
+        RecipeDetailDto cached = entries.get(id);
+        if (cached != null) result.put(id, cached);
+        else missing.add(id);
+      }
+    }
+    if (missing.isEmpty()) return result;
+    long before = invalidations.get();
+    List<RecipeDetailDto> loaded = loader.apply(missing);
+    synchronized (entries) {
+      boolean unchanged = invalidations.get() == before;
+      for (RecipeDetailDto detail : loaded) {
+        result.put(detail.id(), detail);
+        if (unchanged) entries.put(detail.id(), detail);
+      }
+    }
+    return result;
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onSaved(RecipeSavedEvent event) {
+    invalidate(event.recipe().id());
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onDeleted(RecipeDeletedEvent event) {
+    invalidate(event.recipeId());
+  }
+
+  private void invalidate(long id) {
+    synchronized (entries) {
+      invalidations.incrementAndGet();
+      entries.remove(id);
+    }
+  }
+}
@@ -0,0 +1,44 @@
+package com.recipebook.service;
+
+import com.recipebook.dto.RecipeDetailDto;
+import com.recipebook.repository.RecipeRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Loads recipe details with a fixed number of queries, independent of the number of ingredients
+ * and steps. Kept apart from {@link RecipeService} so cache hits in front of it need no transaction.
+ */
+@Service
+public class RecipeDetailLoader {
+
+  private final RecipeRepository recipeRepository;
+
+  public RecipeDetailLoader(RecipeRepository recipeRepository) {
+    this.recipeRepository = recipeRepository;
+  }
+
+  @Transactional(readOnly = true)
+  public Optional<RecipeDetailDto> load(Long id) {
+    return recipeRepository.findWithIngredientsById(id)
+      .flatMap(recipe -> recipeRepository.findWithInstructionsById(id))
+      .map(RecipeDetailDto::of);
+  }
+
+  /**
+   * Same two queries for a whole set of recipes, with the ids as IN list. Unknown ids are skipped,
+   * the result is in no particular order.
+   */
+  @Transactional(readOnly = true)
+  public List<RecipeDetailDto> loadAll(Collection<Long> ids) {
+    if (ids.isEmpty()) return List.of();
+    recipeRepository.findWithIngredientsByIdIn(ids);
+    return recipeRepository.findWithInstructionsByIdIn(ids).stream()
+      .map(RecipeDetailDto::of)
+      .toList();
+  }
+}
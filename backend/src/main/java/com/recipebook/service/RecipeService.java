@@ -1,72 +1,193 @@
 package com.recipebook.service;
 
+import com.recipebook.dto.RecipeChangesDto;
+import com.recipebook.dto.RecipeDetailDto;
+import com.recipebook.dto.RecipePatchRequest;
+import com.recipebook.dto.RecipeSearchResultDto;
 import com.recipebook.dto.RecipeSummaryDto;
-import com.recipebook.dto.SourceAuthorDto;
+import com.recipebook.dto.RecipeSummaryPageDto;
 import com.recipebook.model.CustomUserDetails;
+import com.recipebook.model.EnrichmentStatus;
 import com.recipebook.model.Recipe;
+import com.recipebook.model.RecipeSummary;
+import com.recipebook.model.RecipeSummaryRow;
+import com.recipebook.model.Role;
 import com.recipebook.model.Ingredient;
 import com.recipebook.model.User;
 import com.recipebook.repository.RecipeRepository;
-import com.recipebook.repository.RecipeRepository.RecipeSummaryProjection;
+import com.recipebook.repository.RecipeSummaryRepository;
 import com.recipebook.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 public class RecipeService {
-    
+
+    public static final int MAX_PAGE_SIZE = 100;
+
+    @Value("${app.recipes.batch-max-size:50}")
+    private int batchMaxSize;
+
     private final RecipeRepository recipeRepository;
+    private final RecipeSummaryRepository recipeSummaryRepository;
     private final UserRepository userRepository;
-    private final UnsplashService unsplashService;
-    private final NutritionService nutritionService;
+    private final EnrichmentQueue enrichmentQueue;
+    private final ImageStorageService imageStorageService;
+    private final ImageVariantService imageVariantService;
+    private final RecipeSummaryCache recipeSummaryCache;
+    private final RecipeSummaryStreamWriter recipeSummaryStreamWriter;
+    private final ApplicationEventPublisher eventPublisher;
+    private final RecipeDetailCache recipeDetailCache;
+    private final RecipeDetailLoader recipeDetailLoader;
 
-    public RecipeService(RecipeRepository recipeRepository, UserRepository userRepository, UnsplashService unsplashService, NutritionService nutritionService) {
+    public RecipeService(RecipeRepository recipeRepository, RecipeSummaryRepository recipeSummaryRepository, UserRepository userRepository, EnrichmentQueue enrichmentQueue, ImageStorageService imageStorageService, ImageVariantService imageVariantService, RecipeSummaryCache recipeSummaryCache, RecipeSummaryStreamWriter recipeSummaryStreamWriter, ApplicationEventPublisher eventPublisher, RecipeDetailCache recipeDetailCache, RecipeDetailLoader recipeDetailLoader) {
         this.recipeRepository = recipeRepository;
+        this.recipeSummaryRepository = recipeSummaryRepository;
         this.userRepository = userRepository;
-        this.unsplashService = unsplashService;
-        this.nutritionService = nutritionService;
+        this.enrichmentQueue = enrichmentQueue;
+        this.imageStorageService = imageStorageService;
+        this.imageVariantService = imageVariantService;
+        this.recipeSummaryCache = recipeSummaryCache;
+        this.recipeSummaryStreamWriter = recipeSummaryStreamWriter;
+        this.eventPublisher = eventPublisher;
+        this.recipeDetailCache = recipeDetailCache;
+        this.recipeDetailLoader = recipeDetailLoader;
     }
-    
-    public List<RecipeSummaryDto> findAllSummaries() {
-        return recipeRepository.findAllSummaries().stream().map(p -> {
-            RecipeSummaryDto dto = new RecipeSummaryDto(
-                p.getId(), p.getTitle(), p.getDescription(), p.getImageUrl(),
-                p.getPrepTimeMinutes(), p.getBaseServings(), p.getServingsTo(),
-                p.getIngredientCount()
-            );
-            dto.setAuthor(p.getAuthor());
-            dto.setSource(p.getSource());
-            dto.setCreatedBy(p.getCreatedBy());
-            dto.setIngredientNames(p.getIngredientNames());
-            dto.setNutritionKcal(p.getNutritionKcal());
-            dto.setNutritionFat(p.getNutritionFat());
-            dto.setNutritionProtein(p.getNutritionProtein());
-            dto.setNutritionFiber(p.getNutritionFiber());
-            return dto;
-        }).collect(Collectors.toList());
+
+    /**
+     * The full summary list as cached, pre-serialized JSON for the current collection version.
+     * The snapshot is built by streaming rows into the compressor, no list of DTOs is materialized.
+     */
+    public RecipeSummaryCache.Snapshot getSummarySnapshot() {
+        return recipeSummaryCache.get(this::writeAllSummaries);
     }
 
-    public List<SourceAuthorDto> findDistinctSourceAuthorPairs() {
-        return recipeRepository.findDistinctSourceAuthorPairs();
+    /**
+     * Writes the full summary list uncached and uncompressed, row by row from the database.
+     */
+    public void writeAllSummaries(OutputStream out) throws IOException {
+        recipeSummaryStreamWriter.write(out, this::toSummaryDto);
     }
 
-    public List<String> findDistinctUnits() {
-        return recipeRepository.findDistinctUnits();
+    /**
+     * Keyset-paginated variant of {@link #getSummarySnapshot()}: returns up to {@code limit} summaries
+     * with an id below {@code after} (newest first) and the cursor for the following page.
+     */
+    public RecipeSummaryPageDto findSummaryPage(Long after, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        long cursor = after != null ? after : Long.MAX_VALUE;
+        List<RecipeSummaryDto> items = recipeSummaryRepository.findByRecipeIdLessThanOrderByRecipeIdDesc(cursor, Limit.of(pageSize + 1)).stream()
+            .map(this::toSummaryDto)
+            .collect(Collectors.toList());
+        Long nextCursor = null;
+        if (items.size() > pageSize) {
+            items = items.subList(0, pageSize);
+            nextCursor = items.get(pageSize - 1).getId();
+        }
+        return new RecipeSummaryPageDto(items, nextCursor);
     }
 
-    public List<Recipe> findAll() {
-        return recipeRepository.findAll();
+    /**
+     * Returns the summaries written and the ids deleted after change-feed version {@code since},
+     * together with the version to pass as {@code since} next time. Both lists are read from the
+     * same snapshot so no change can fall between them.
+     */
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public RecipeChangesDto findChanges(long since) {
+        List<RecipeSummary> upserted = recipeSummaryRepository.findBySyncVersionGreaterThanOrderBySyncVersionAsc(since);
+        List<Long> deleted = recipeSummaryRepository.findDeletedRecipeIdsSince(since);
+        long version = Math.max(since, recipeSummaryRepository.findLatestTombstoneVersionSince(since));
+        if (!upserted.isEmpty()) {
+            version = Math.max(version, upserted.get(upserted.size() - 1).getSyncVersion());
+        }
+        List<RecipeSummaryDto> summaries = upserted.stream()
+            .map(this::toSummaryDto)
+            .collect(Collectors.toList());
+        return new RecipeChangesDto(version, summaries, deleted);
     }
-    
-    public Optional<Recipe> findById(Long id) {
-        return recipeRepository.findById(id);
+
+    private RecipeSummaryDto toSummaryDto(RecipeSummaryRow p) {
+        return fillSummary(new RecipeSummaryDto(), p);
+    }
+
+    /**
+     * Copies the columns every summary row has into {@code dto}.
+     */
+    private <T extends RecipeSummaryDto> T fillSummary(T dto, RecipeSummaryRow p) {
+        dto.setId(p.getRecipeId());
+        dto.setTitle(p.getTitle());
+        dto.setDescription(p.getDescription());
+        dto.setImageUrl(p.getImageUrl());
+        dto.setPrepTimeMinutes(p.getPrepTimeMinutes());
+        dto.setBaseServings(p.getBaseServings());
+        dto.setServingsTo(p.getServingsTo());
+        dto.setIngredientCount(p.getIngredientCount());
+        dto.setThumbnailUrl(imageVariantService.thumbnailUrl(p.getImageUrl()));
+        dto.setAuthor(p.getAuthor());
+        dto.setSource(p.getSource());
+        dto.setCreatedBy(p.getCreatedBy());
+        dto.setIngredientNames(p.getIngredientNames());
+        dto.setNutritionKcal(p.getNutritionKcal());
+        dto.setNutritionFat(p.getNutritionFat());
+        dto.setNutritionProtein(p.getNutritionProtein());
+        dto.setNutritionFiber(p.getNutritionFiber());
+        dto.setSyncVersion(p.getSyncVersion());
+        return dto;
+    }
+
+    /**
+     * Recipe with ingredients and instructions, from the detail cache or with exactly two queries.
+     */
+    public Optional<RecipeDetailDto> findDetail(Long id) {
+        return recipeDetailCache.get(id, () -> recipeDetailLoader.load(id));
+    }
+
+    /**
+     * Details for several recipes in request order, duplicates and unknown ids dropped. Cache misses
+     * are loaded together with two IN-list queries.
+     */
+    public List<RecipeDetailDto> findDetails(List<Long> ids) {
+        List<Long> distinctIds = ids.stream().filter(Objects::nonNull).distinct().toList();
+        if (distinctIds.size() > batchMaxSize) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "Es können höchstens " + batchMaxSize + " Rezepte auf einmal geladen werden.");
+        }
+        Map<Long, RecipeDetailDto> details = recipeDetailCache.getAll(distinctIds, recipeDetailLoader::loadAll);
+        return distinctIds.stream().map(details::get).filter(Objects::nonNull).toList();
     }
     
-    public List<Recipe> search(String query) {
-        return recipeRepository.searchByTitleOrDescription(query);
+    /**
+     * Ranked full-text search, {@code size} hits per page starting at page 0.
+     */
+    public List<RecipeSearchResultDto> search(String query, int page, int size) {
+        if (query == null || query.isBlank()) return List.of();
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        return recipeSummaryRepository.search(query, pageSize, Math.max(0, page) * pageSize).stream()
+            .map(this::toSearchResultDto)
+            .collect(Collectors.toList());
+    }
+
+    private RecipeSearchResultDto toSearchResultDto(RecipeSummaryRepository.SearchHitProjection p) {
+        RecipeSearchResultDto dto = fillSummary(new RecipeSearchResultDto(), p);
+        dto.setSnippet(p.getSnippet());
+        return dto;
     }
     
     @Transactional
@@ -76,44 +197,310 @@ public class RecipeService {
                 ingredient.setRecipe(recipe);
             }
         }
+        if (imageStorageService.isDataUrl(recipe.getImageUrl())) {
+            recipe.setImageUrl(imageStorageService.storeDataUrl(recipe.getImageUrl()));
+            imageVariantService.generateAsync(recipe.getImageUrl());
+        }
         recipe.setUser(user);
-        return recipeRepository.save(recipe);
+        Recipe saved = recipeRepository.save(recipe);
+        afterWrite(saved);
+        return saved;
+    }
+
+    /**
+     * Brings a stored recipe to the state of {@code changes} and writes only what differs.
+     * Ingredients are matched by id (or, without one, by identical content), steps by position,
+     * and nutrition is queued for recalculation only if an ingredient was added, removed or edited.
+     * The owner stays as stored.
+     */
+    @Transactional
+    public Optional<Recipe> update(Long id, Recipe changes, CustomUserDetails userDetails, Long expectedVersion) {
+        return loadForUpdate(id).map(recipe -> {
+            checkWritable(recipe, userDetails, expectedVersion);
+            return applyChanges(recipe, changes);
+        });
+    }
+
+    /**
+     * Like {@link #update}, but only for the fields present in the request.
+     */
+    @Transactional
+    public Optional<Recipe> patch(Long id, RecipePatchRequest patch, CustomUserDetails userDetails, Long expectedVersion) {
+        return loadForUpdate(id).map(recipe -> {
+            checkWritable(recipe, userDetails, expectedVersion);
+            Recipe changes = editableCopy(recipe);
+            if (patch.getTitle() != null) changes.setTitle(patch.getTitle());
+            if (patch.getDescription() != null) changes.setDescription(patch.getDescription());
+            if (patch.getInstructions() != null) changes.setInstructions(patch.getInstructions());
+            if (patch.getIngredients() != null) changes.setIngredients(patch.getIngredients());
+            if (patch.getBaseServings() != null) changes.setBaseServings(patch.getBaseServings());
+            if (patch.getImageUrl() != null) changes.setImageUrl(patch.getImageUrl());
+            if (patch.getAuthor() != null) changes.setAuthor(patch.getAuthor());
+            if (patch.getSource() != null) changes.setSource(patch.getSource());
+            if (patch.getPage() != null) changes.setPage(patch.getPage());
+            if (patch.getPrepTimeMinutes() != null) changes.setPrepTimeMinutes(patch.getPrepTimeMinutes());
+            if (patch.getServingsTo() != null) changes.setServingsTo(patch.getServingsTo());
+            return applyChanges(recipe, changes);
+        });
+    }
+
+    private Optional<Recipe> loadForUpdate(Long id) {
+        return recipeRepository.findWithIngredientsById(id)
+            .flatMap(recipe -> recipeRepository.findWithInstructionsById(id));
+    }
+
+    /**
+     * Only the owner or an admin may change a recipe. With {@code expectedVersion} (from If-Match)
+     * the write is rejected if the recipe changed since the client read it; a concurrent change
+     * between this check and the commit is caught by the version condition of the UPDATE itself.
+     */
+    private static void checkWritable(Recipe recipe, CustomUserDetails userDetails, Long expectedVersion) {
+        boolean isAdmin = userDetails != null && userDetails.getRole() == Role.ADMIN;
+        boolean isOwner = userDetails != null && recipe.getUser() != null
+            && recipe.getUser().getId().equals(userDetails.getId());
+        if (!isAdmin && !isOwner) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Keine Berechtigung für dieses Rezept.");
+        }
+        if (expectedVersion != null && !expectedVersion.equals(recipe.getVersion())) {
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED,
+                "Das Rezept wurde inzwischen geändert. Bitte neu laden.");
+        }
+    }
+
+    private static Recipe editableCopy(Recipe recipe) {
+        Recipe copy = new Recipe();
+        copy.setTitle(recipe.getTitle());
+        copy.setDescription(recipe.getDescription());
+        copy.setInstructions(new ArrayList<>(recipe.getInstructions()));
+        copy.setIngredients(new ArrayList<>(recipe.getIngredients()));
+        copy.setBaseServings(recipe.getBaseServings());
+        copy.setImageUrl(recipe.getImageUrl());
+        copy.setAuthor(recipe.getAuthor());
+        copy.setSource(recipe.getSource());
+        copy.setPage(recipe.getPage());
+        copy.setPrepTimeMinutes(recipe.getPrepTimeMinutes());
+        copy.setServingsTo(recipe.getServingsTo());
+        return copy;
+    }
+
+    /**
+     * Plain setters are enough for the scalar fields, Hibernate's dirty check skips unchanged
+     * values. A write that changes nothing leaves the recipe untouched: no new updatedAt, version,
+     * sync version or index events, so the client's ETag stays valid.
+     */
+    private Recipe applyChanges(Recipe recipe, Recipe changes) {
+        boolean changed = !Objects.equals(recipe.getTitle(), changes.getTitle())
+            || !Objects.equals(recipe.getDescription(), changes.getDescription())
+            || !Objects.equals(recipe.getBaseServings(), changes.getBaseServings())
+            || !Objects.equals(recipe.getAuthor(), changes.getAuthor())
+            || !Objects.equals(recipe.getSource(), changes.getSource())
+            || !Objects.equals(recipe.getPage(), changes.getPage())
+            || !Objects.equals(recipe.getPrepTimeMinutes(), changes.getPrepTimeMinutes())
+            || !Objects.equals(recipe.getServingsTo(), changes.getServingsTo())
+            || !Objects.equals(recipe.getImageUrl(), changes.getImageUrl());
+        recipe.setTitle(changes.getTitle());
+        recipe.setDescription(changes.getDescription());
+        recipe.setBaseServings(changes.getBaseServings());
+        recipe.setAuthor(changes.getAuthor());
+        recipe.setSource(changes.getSource());
+        recipe.setPage(changes.getPage());
+        recipe.setPrepTimeMinutes(changes.getPrepTimeMinutes());
+        recipe.setServingsTo(changes.getServingsTo());
+        if (imageStorageService.isDataUrl(changes.getImageUrl())) {
+            recipe.setImageUrl(imageStorageService.storeDataUrl(changes.getImageUrl()));
+            imageVariantService.generateAsync(recipe.getImageUrl());
+        } else {
+            recipe.setImageUrl(changes.getImageUrl());
+        }
+        changed |= mergeInstructions(recipe.getInstructions(), changes.getInstructions());
+        List<Ingredient> ingredientsBefore = List.copyOf(recipe.getIngredients());
+        if (mergeIngredients(recipe, changes.getIngredients())) {
+            recipe.setEnrichmentStatus(EnrichmentStatus.PENDING);
+            enrichmentQueue.enqueue(recipe.getId(), EnumSet.of(EnrichmentJob.Kind.NUTRITION));
+            changed = true;
+        }
+        // Same rows, only in another order
+        changed |= !ingredientsBefore.equals(recipe.getIngredients());
+        if (!changed) return recipe;
+        recipe.setUpdatedAt(LocalDateTime.now());
+        afterWrite(recipe);
+        return recipe;
+    }
+
+    /**
+     * Updates the ordered step list in place, so only steps whose text changed are rewritten and
+     * steps are inserted or deleted at the end only. Returns whether any step changed.
+     */
+    private static boolean mergeInstructions(List<String> current, List<String> target) {
+        List<String> steps = target != null ? target : List.of();
+        boolean changed = false;
+        for (int i = 0; i < steps.size(); i++) {
+            if (i >= current.size()) {
+                current.add(steps.get(i));
+                changed = true;
+            } else if (!Objects.equals(current.get(i), steps.get(i))) {
+                current.set(i, steps.get(i));
+                changed = true;
+            }
+        }
+        while (current.size() > steps.size()) {
+            current.remove(current.size() - 1);
+            changed = true;
+        }
+        return changed;
+    }
+
+    /**
+     * Reuses the stored ingredient rows for the incoming ones and returns whether any name, amount
+     * or unit changed. Rows no longer referenced are deleted by orphan removal.
+     */
+    private static boolean mergeIngredients(Recipe recipe, List<Ingredient> target) {
+        List<Ingredient> current = recipe.getIngredients();
+        List<Ingredient> unclaimed = new ArrayList<>(current);
+        List<Ingredient> merged = new ArrayList<>();
+        boolean changed = false;
+        List<Ingredient> incoming = target != null ? target : List.of();
+        for (int i = 0; i < incoming.size(); i++) {
+            Ingredient in = incoming.get(i);
+            Ingredient existing = unclaimed.stream()
+                .filter(c -> in.getId() != null && in.getId().equals(c.getId()))
+                .findFirst()
+                .or(() -> unclaimed.stream().filter(c -> sameContent(c, in)).findFirst())
+                .orElse(null);
+            if (existing == null) {
+                existing = new Ingredient(in.getName(), in.getAmount(), in.getUnit());
+                existing.setRecipe(recipe);
+                changed = true;
+            } else {
+                unclaimed.remove(existing);
+                if (!sameContent(existing, in)) {
+                    existing.setName(in.getName());
+                    existing.setAmount(in.getAmount());
+                    existing.setUnit(in.getUnit());
+                    changed = true;
+                }
+            }
+            existing.setSortOrder(i);
+            merged.add(existing);
+        }
+        if (!unclaimed.isEmpty()) changed = true;
+        // Replacing the collection dirties it even with the same rows in the same order
+        if (!merged.equals(current)) {
+            current.clear();
+            current.addAll(merged);
+        }
+        return changed;
+    }
+
+    private static boolean sameContent(Ingredient a, Ingredient b) {
+        return Objects.equals(a.getName(), b.getName())
+            && Objects.equals(a.getAmount(), b.getAmount())
+            && Objects.equals(a.getUnit(), b.getUnit());
+    }
+
+    private void afterWrite(Recipe saved) {
+        recipeRepository.markChanged(saved.getId(), recipeSummaryRepository.nextSyncVersion());
+        recipeRepository.refreshSearchVector(saved.getId());
+        recipeSummaryRepository.refresh(saved.getId());
+        recipeSummaryCache.invalidate();
+        eventPublisher.publishEvent(new RecipeSavedEvent(IndexedRecipe.of(saved)));
     }
     
+    /**
+     * Deletes a recipe after the same checks as {@link #update}. Returns false if it does not exist.
+     */
     @Transactional
-    public void deleteById(Long id) {
-        recipeRepository.deleteById(id);
+    public boolean delete(Long id, CustomUserDetails userDetails, Long expectedVersion) {
+        Optional<Recipe> recipe = recipeRepository.findById(id);
+        if (recipe.isEmpty()) return false;
+        checkWritable(recipe.get(), userDetails, expectedVersion);
+        recipeRepository.delete(recipe.get());
+        afterDelete(id);
+        return true;
+    }
+
+    private void afterDelete(Long id) {
+        // The recipe_summary row is removed with the recipe by ON DELETE CASCADE
+        recipeSummaryRepository.insertTombstone(id, recipeSummaryRepository.nextSyncVersion());
+        recipeSummaryCache.invalidate();
+        eventPublisher.publishEvent(new RecipeDeletedEvent(id));
     }
     
+    // save() is called on this instance, bypassing the proxy, so the transaction has to start here
+    @Transactional
     public Recipe saveForUser(Recipe recipe, CustomUserDetails userDetails) {
         User user = userDetails != null
             ? userRepository.findById(userDetails.getId()).orElse(null)
             : null;
+        // Image lookup and nutrition are slow external calls, they run after commit on the worker
+        Set<EnrichmentJob.Kind> enrichments = EnumSet.noneOf(EnrichmentJob.Kind.class);
         if (recipe.getId() == null && (recipe.getImageUrl() == null || recipe.getImageUrl().isBlank())) {
-            String imageUrl = unsplashService.findImageUrl(recipe.getTitle());
-            if (imageUrl != null) recipe.setImageUrl(imageUrl);
+            enrichments.add(EnrichmentJob.Kind.IMAGE);
         }
         if (recipe.getIngredients() != null && !recipe.getIngredients().isEmpty()) {
-            NutritionService.NutritionResult nutrition = nutritionService.calculateNutrition(recipe.getIngredients());
-            if (nutrition != null) {
-                recipe.setNutritionKcal(nutrition.getKcal());
-                recipe.setNutritionFat(nutrition.getFat());
-                recipe.setNutritionProtein(nutrition.getProtein());
-                recipe.setNutritionCarbs(nutrition.getCarbs());
-                recipe.setNutritionFiber(nutrition.getFiber());
-            }
+            enrichments.add(EnrichmentJob.Kind.NUTRITION);
         }
-        return save(recipe, user);
+        if (!enrichments.isEmpty()) recipe.setEnrichmentStatus(EnrichmentStatus.PENDING);
+        Recipe saved = save(recipe, user);
+        enrichmentQueue.enqueue(saved.getId(), enrichments);
+        return saved;
     }
 
-    public boolean isOwner(Long recipeId, User user) {
-        if (user == null) return false;
-        return isOwner(recipeId, user.getId());
+    /**
+     * Writes a looked-up image back, unless the recipe got one of its own in the meantime.
+     */
+    @Transactional
+    public void completeImageEnrichment(EnrichmentJob job, String imageUrl) {
+        loadForEnrichment(job.recipeId()).ifPresent(recipe -> {
+            if (imageUrl != null && (recipe.getImageUrl() == null || recipe.getImageUrl().isBlank())) {
+                recipe.setImageUrl(imageUrl);
+            }
+            finishEnrichment(recipe, job, EnrichmentStatus.DONE);
+        });
     }
 
-    public boolean isOwner(Long recipeId, Long userId) {
-        if (userId == null) return false;
-        Optional<Recipe> recipe = recipeRepository.findById(recipeId);
-        return recipe.map(r -> r.getUser() != null && r.getUser().getId().equals(userId)).orElse(false);
+    @Transactional
+    public void completeNutritionEnrichment(EnrichmentJob job, NutritionService.NutritionResult nutrition) {
+        loadForEnrichment(job.recipeId()).ifPresent(recipe -> {
+            recipe.setNutritionKcal(nutrition != null ? nutrition.getKcal() : null);
+            recipe.setNutritionFat(nutrition != null ? nutrition.getFat() : null);
+            recipe.setNutritionProtein(nutrition != null ? nutrition.getProtein() : null);
+            recipe.setNutritionCarbs(nutrition != null ? nutrition.getCarbs() : null);
+            recipe.setNutritionFiber(nutrition != null ? nutrition.getFiber() : null);
+            finishEnrichment(recipe, job, EnrichmentStatus.DONE);
+        });
+    }
+
+    /**
+     * Gives up on a job that ran out of attempts. The recipe stays usable, only without the result.
+     */
+    @Transactional
+    public void failEnrichment(EnrichmentJob job) {
+        loadForEnrichment(job.recipeId()).ifPresent(recipe -> finishEnrichment(recipe, job, EnrichmentStatus.FAILED));
+    }
+
+    /**
+     * Jobs of the same recipe run in parallel; the row lock is taken before the recipe is loaded, so
+     * the second write-back waits for the first and then sees its version.
+     */
+    private Optional<Recipe> loadForEnrichment(Long id) {
+        return recipeRepository.lockById(id).flatMap(this::loadForUpdate);
+    }
+
+    /**
+     * Removes the job in the same transaction as its result and settles the status once no job is
+     * left. Goes through {@link #afterWrite} like any other update, so caches, indexes and the
+     * change feed pick the result up.
+     */
+    private void finishEnrichment(Recipe recipe, EnrichmentJob job, EnrichmentStatus outcome) {
+        if (enrichmentQueue.remove(job)) {
+            if (outcome == EnrichmentStatus.FAILED) {
+                recipe.setEnrichmentStatus(EnrichmentStatus.FAILED);
+            } else if (recipe.getEnrichmentStatus() == EnrichmentStatus.PENDING && !enrichmentQueue.hasJobs(recipe.getId())) {
+                recipe.setEnrichmentStatus(EnrichmentStatus.DONE);
+            }
+        }
+        recipe.setUpdatedAt(LocalDateTime.now());
+        afterWrite(recipe);
     }
 }
@@ -0,0 +1,83 @@
+package com.recipebook.service;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps the serialized recipe list as gzip-compressed JSON together with the collection version it
+ * was built for. Every write bumps the version once its transaction has committed; the next read
+ * rebuilds the snapshot, all other reads are served from memory.
+ */
+@Service
+public class RecipeSummaryCache {
+
+  /** Distinguishes versions of this process from those of a previous run. */
+  private final String instanceId = Long.toString(System.currentTimeMillis(), 36);
+  private final AtomicLong version = new AtomicLong();
+  private volatile Snapshot snapshot;
+
+  public record Snapshot(long version, String etag, byte[] gzipJson) {}
+
+  /** Writes the uncompressed JSON of the full list. */
+  @FunctionalInterface
+  public interface JsonWriter {
+    void write(OutputStream out) throws IOException;
+  }
+
+  public long getVersion() {
+    return version.get();
+  }
+
+  public Snapshot get(JsonWriter writer) {
+    Snapshot current = snapshot;
+    if (current != null && current.version() == version.get()) return current;
+    synchronized (this) {
+      long buildVersion = version.get();
+      current = snapshot;
+      if (current != null && current.version() == buildVersion) return current;
+      Snapshot built = new Snapshot(buildVersion, etag(buildVersion), serialize(writer));
+      // A write committed while we were loading, keep serving but do not publish stale data
+      if (version.get() == buildVersion) snapshot = built;
+      return built;
+    }
+  }
+
+  /**
+   * Marks the cached list as outdated. Inside a transaction the version is bumped after commit,
+   * so a concurrent rebuild can never cache pre-commit data under the new version.
+   */
+  public void invalidate() {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          version.incrementAndGet();
+        }
+      });
+    } else {
+      version.incrementAndGet();
+    }
+  }
+
+  private String etag(long version) {
+    return "W/\"" + instanceId + "-" + version + "\"";
+  }
+
+  private static byte[] serialize(JsonWriter writer) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+      writer.write(gzip);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return out.toByteArray();
+  }
+}
@@ -0,0 +1,101 @@
+package com.recipebook.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.recipebook.dto.RecipeSummaryDto;
+import com.recipebook.model.RecipeSummary;
+import com.recipebook.model.RecipeSummaryRow;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.function.Function;
+
+/**
+ * Writes the recipe list as a JSON array straight from a forward-only JDBC cursor. Rows are fetched
+ * in chunks of {@link #FETCH_SIZE} and serialized one by one, so memory use does not grow with the
+ * number of recipes. Each row goes through the same {@link RecipeSummaryDto} the other list
+ * endpoints return, so the output cannot drift from theirs.
+ */
+@Service
+public class RecipeSummaryStreamWriter {
+
+  static final int FETCH_SIZE = 200;
+
+  private static final String SUMMARY_QUERY =
+      "SELECT recipe_id, title, description, image_url, prep_time_minutes, base_servings, servings_to, " +
+      "ingredient_count, author, source, created_by, ingredient_names, " +
+      "nutrition_kcal, nutrition_fat, nutrition_protein, nutrition_fiber, sync_version " +
+      "FROM recipe_summary ORDER BY recipe_id DESC";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final ObjectMapper objectMapper;
+  private final ObjectWriter summaryWriter;
+
+  public RecipeSummaryStreamWriter(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.objectMapper = objectMapper;
+    // No flush per row, the servlet stream buffers and the generator is flushed once at the end
+    this.summaryWriter = objectMapper.writerFor(RecipeSummaryDto.class)
+        .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+  }
+
+  /**
+   * Writes all summaries, newest first, to {@code out}. Each row is mapped with {@code toDto}, the
+   * same mapping the paged list uses, and serialized before the next one is read. The stream is
+   * flushed but not closed.
+   * Runs in a read-only transaction because the PostgreSQL driver only honours the fetch size
+   * with auto-commit disabled; otherwise it would load the whole result set at once.
+   */
+  @Transactional(readOnly = true)
+  public void write(OutputStream out, Function<RecipeSummaryRow, RecipeSummaryDto> toDto) throws IOException {
+    try (JsonGenerator gen = objectMapper.createGenerator(out)) {
+      gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+      gen.writeStartArray();
+      jdbcTemplate.query(con -> {
+        PreparedStatement ps = con.prepareStatement(SUMMARY_QUERY, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        ps.setFetchSize(FETCH_SIZE);
+        return ps;
+      }, rs -> {
+        try {
+          summaryWriter.writeValue(gen, toDto.apply(toRow(rs)));
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      });
+      gen.writeEndArray();
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+
+  private static RecipeSummary toRow(ResultSet rs) throws SQLException {
+    RecipeSummary row = new RecipeSummary();
+    row.setRecipeId(rs.getObject("recipe_id", Long.class));
+    row.setTitle(rs.getString("title"));
+    row.setDescription(rs.getString("description"));
+    row.setImageUrl(rs.getString("image_url"));
+    row.setPrepTimeMinutes(rs.getObject("prep_time_minutes", Integer.class));
+    row.setBaseServings(rs.getObject("base_servings", Integer.class));
+    row.setServingsTo(rs.getObject("servings_to", Integer.class));
+    row.setIngredientCount(rs.getObject("ingredient_count", Long.class));
+    row.setAuthor(rs.getString("author"));
+    row.setSource(rs.getString("source"));
+    row.setCreatedBy(rs.getString("created_by"));
+    row.setIngredientNames(rs.getString("ingredient_names"));
+    row.setNutritionKcal(rs.getObject("nutrition_kcal", Double.class));
+    row.setNutritionFat(rs.getObject("nutrition_fat", Double.class));
+    row.setNutritionProtein(rs.getObject("nutrition_protein", Double.class));
+    row.setNutritionFiber(rs.getObject("nutrition_fiber", Double.class));
+    row.setSyncVersion(rs.getObject("sync_version", Long.class));
+    return row;
+  }
+}
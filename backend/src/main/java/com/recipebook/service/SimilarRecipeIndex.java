@@ -0,0 +1,134 @@
+package com.recipebook.service;
+
+import com.recipebook.dto.SimilarRecipeDto;
+import com.recipebook.util.IngredientNames;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Finds recipes with similar ingredient sets without comparing all pairs. Each recipe gets a MinHash
+ * signature of its ingredient match keys; the signature is cut into {@link #BANDS} bands and
+ * recipes sharing any band land in the same bucket. Only bucket mates are compared, by the share of
+ * equal signature positions, which estimates the Jaccard similarity of the ingredient sets.
+ * With 16 bands of 4 rows, pairs above ~0.5 similarity are found with high probability.
+ */
+@Service
+public class SimilarRecipeIndex extends InMemoryRecipeIndex {
+
+  static final int BANDS = 16;
+  static final int ROWS = 4;
+  private static final int SIGNATURE_LENGTH = BANDS * ROWS;
+
+  private static final long[] SEEDS = new Random(0x5eed_1dL).longs(SIGNATURE_LENGTH).toArray();
+
+  private record Entry(String title, int[] signature, long[] bandKeys) {}
+
+  private final Map<Long, Entry> recipes = new HashMap<>();
+  private final Map<Long, Set<Long>> buckets = new HashMap<>();
+
+  public SimilarRecipeIndex(IndexedRecipeLoader loader) {
+    super(loader);
+  }
+
+  /**
+   * Returns up to {@code limit} recipes most similar to {@code recipeId}, or nothing if the recipe
+   * is unknown or has no ingredients.
+   */
+  public List<SimilarRecipeDto> findSimilar(long recipeId, int limit) {
+    if (limit <= 0) return List.of();
+    return read(() -> {
+      Entry entry = recipes.get(recipeId);
+      if (entry == null) return List.<SimilarRecipeDto>of();
+      Set<Long> candidates = new HashSet<>();
+      for (long bandKey : entry.bandKeys()) candidates.addAll(buckets.get(bandKey));
+      candidates.remove(recipeId);
+      return candidates.stream()
+        .map(id -> new SimilarRecipeDto(id, recipes.get(id).title(), similarity(entry.signature(), recipes.get(id).signature())))
+        .sorted(Comparator.comparing(SimilarRecipeDto::getSimilarity, Comparator.reverseOrder())
+          .thenComparing(SimilarRecipeDto::getId))
+        .limit(limit)
+        .toList();
+    });
+  }
+
+  @Override
+  protected void clear() {
+    recipes.clear();
+    buckets.clear();
+  }
+
+  @Override
+  protected void add(IndexedRecipe recipe) {
+    Set<String> ingredients = new LinkedHashSet<>();
+    for (String name : recipe.ingredientNames()) {
+      String key = IngredientNames.matchKey(name);
+      if (!key.isEmpty()) ingredients.add(key);
+    }
+    if (ingredients.isEmpty()) return;
+
+    int[] signature = signature(ingredients);
+    long[] bandKeys = bandKeys(signature);
+    recipes.put(recipe.id(), new Entry(recipe.title(), signature, bandKeys));
+    for (long bandKey : bandKeys) buckets.computeIfAbsent(bandKey, k -> new HashSet<>()).add(recipe.id());
+  }
+
+  @Override
+  protected void remove(long recipeId) {
+    Entry entry = recipes.remove(recipeId);
+    if (entry == null) return;
+    for (long bandKey : entry.bandKeys()) {
+      Set<Long> bucket = buckets.get(bandKey);
+      bucket.remove(recipeId);
+      if (bucket.isEmpty()) buckets.remove(bandKey);
+    }
+  }
+
+  static int[] signature(Set<String> ingredients) {
+    int[] signature = new int[SIGNATURE_LENGTH];
+    Arrays.fill(signature, Integer.MAX_VALUE);
+    for (String ingredient : ingredients) {
+      long base = ingredient.hashCode();
+      for (int i = 0; i < SIGNATURE_LENGTH; i++) {
+        int hash = (int) mix(base ^ SEEDS[i]);
+        if (hash < signature[i]) signature[i] = hash;
+      }
+    }
+    return signature;
+  }
+
+  static double similarity(int[] a, int[] b) {
+    int equal = 0;
+    for (int i = 0; i < a.length; i++) {
+      if (a[i] == b[i]) equal++;
+    }
+    return (double) equal / a.length;
+  }
+
+  private static long[] bandKeys(int[] signature) {
+    long[] keys = new long[BANDS];
+    for (int band = 0; band < BANDS; band++) {
+      long key = band;
+      for (int row = 0; row < ROWS; row++) {
+        key = key * 31 + signature[band * ROWS + row];
+      }
+      keys[band] = mix(key);
+    }
+    return keys;
+  }
+
+  /** splitmix64 finalizer, spreads the bits of a 64-bit value. */
+  private static long mix(long z) {
+    z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+    z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+    return z ^ (z >>> 31);
+  }
+}
@@ -0,0 +1,143 @@
+package com.recipebook.service;
+
+import com.recipebook.dto.FuzzyMatchDto;
+import com.recipebook.util.SearchText;
+import org.springframework.stereotype.Service;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Typo-tolerant search over recipe titles, ingredient names, sources and authors. Every distinct word
+ * is a term, terms are found through an inverted index of their trigrams and scored like pg_trgm's
+ * similarity (shared trigrams / all trigrams). Queries never touch the database.
+ */
+@Service
+public class TrigramSearchIndex extends InMemoryRecipeIndex {
+
+  static final double MIN_SIMILARITY = 0.3;
+  private static final float TITLE_WEIGHT = 1.0f;
+  private static final float INGREDIENT_WEIGHT = 0.8f;
+  private static final float SOURCE_WEIGHT = 0.6f;
+
+  private final Map<String, Set<String>> termsByTrigram = new HashMap<>();
+  private final Map<String, Integer> trigramCounts = new HashMap<>();
+  /** term -> recipe id -> weight of the best field the term occurs in */
+  private final Map<String, Map<Long, Float>> postings = new HashMap<>();
+  private final Map<Long, Set<String>> termsByRecipe = new HashMap<>();
+  private final Map<Long, String> titles = new HashMap<>();
+
+  public TrigramSearchIndex(IndexedRecipeLoader loader) {
+    super(loader);
+  }
+
+  /**
+   * Returns up to {@code limit} recipes, best first. Each query word contributes the similarity of
+   * its closest term in the recipe, weighted by the field it was found in.
+   */
+  public List<FuzzyMatchDto> search(String query, int limit) {
+    Set<String> words = new LinkedHashSet<>(SearchText.words(query));
+    if (words.isEmpty() || limit <= 0) return List.of();
+
+    return read(() -> {
+      Map<Long, Double> scores = new HashMap<>();
+      for (String word : words) {
+        Set<String> queryTrigrams = trigrams(word);
+        Map<String, Integer> shared = new HashMap<>();
+        for (String trigram : queryTrigrams) {
+          for (String term : termsByTrigram.getOrDefault(trigram, Set.of())) {
+            shared.merge(term, 1, Integer::sum);
+          }
+        }
+        Map<Long, Double> best = new HashMap<>();
+        shared.forEach((term, count) -> {
+          double similarity = (double) count / (queryTrigrams.size() + trigramCounts.get(term) - count);
+          if (similarity < MIN_SIMILARITY) return;
+          postings.get(term).forEach((recipeId, weight) -> best.merge(recipeId, similarity * weight, Math::max));
+        });
+        best.forEach((recipeId, score) -> scores.merge(recipeId, score, Double::sum));
+      }
+
+      return scores.entrySet().stream()
+        .sorted(Map.Entry.<Long, Double>comparingByValue(Comparator.reverseOrder()).thenComparing(Map.Entry.comparingByKey()))
+        .limit(limit)
+        .map(e -> new FuzzyMatchDto(e.getKey(), titles.get(e.getKey()), e.getValue() / words.size()))
+        .toList();
+    });
+  }
+
+  @Override
+  protected void clear() {
+    termsByTrigram.clear();
+    trigramCounts.clear();
+    postings.clear();
+    termsByRecipe.clear();
+    titles.clear();
+  }
+
+  @Override
+  protected void add(IndexedRecipe recipe) {
+    Map<String, Float> terms = new HashMap<>();
+    collect(terms, recipe.title(), TITLE_WEIGHT);
+    recipe.ingredientNames().forEach(name -> collect(terms, name, INGREDIENT_WEIGHT));
+    collect(terms, recipe.source(), SOURCE_WEIGHT);
+    collect(terms, recipe.author(), SOURCE_WEIGHT);
+
+    terms.forEach((term, weight) -> {
+      Map<Long, Float> recipes = postings.get(term);
+      if (recipes == null) {
+        recipes = new HashMap<>();
+        postings.put(term, recipes);
+        Set<String> termTrigrams = trigrams(term);
+        trigramCounts.put(term, termTrigrams.size());
+        termTrigrams.forEach(t -> termsByTrigram.computeIfAbsent(t, k -> new HashSet<>()).add(term));
+      }
+      recipes.put(recipe.id(), weight);
+    });
+    termsByRecipe.put(recipe.id(), terms.keySet());
+    titles.put(recipe.id(), recipe.title());
+  }
+
+  @Override
+  protected void remove(long recipeId) {
+    Set<String> terms = termsByRecipe.remove(recipeId);
+    titles.remove(recipeId);
+    if (terms == null) return;
+    for (String term : terms) {
+      Map<Long, Float> recipes = postings.get(term);
+      recipes.remove(recipeId);
+      if (!recipes.isEmpty()) continue;
+      postings.remove(term);
+      trigramCounts.remove(term);
+      for (String trigram : trigrams(term)) {
+        Set<String> siblings = termsByTrigram.get(trigram);
+        siblings.remove(term);
+        if (siblings.isEmpty()) termsByTrigram.remove(trigram);
+      }
+    }
+  }
+
+  private static void collect(Map<String, Float> terms, String text, float weight) {
+    for (String word : SearchText.words(text)) {
+      terms.merge(word, weight, Math::max);
+    }
+  }
+
+  /**
+   * Trigrams of a word padded like pg_trgm: two blanks in front, one behind, so short words and
+   * word starts get their own trigrams.
+   */
+  static Set<String> trigrams(String word) {
+    String padded = "  " + word + " ";
+    Set<String> trigrams = new HashSet<>();
+    for (int i = 0; i + 3 <= padded.length(); i++) {
+      trigrams.add(padded.substring(i, i + 3));
+    }
+    return trigrams;
+  }
+}
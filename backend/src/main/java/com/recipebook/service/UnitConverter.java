@@ -0,0 +1,105 @@
+package com.recipebook.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalDouble;
+
+/**
+ * Converts recipe units into the base unit of their dimension: grams, millilitres or pieces.
+ * Between dimensions it converts with the density (g/ml) and piece weight (g) of the ingredient,
+ * so a catalog entry in one unit serves every unit of the ingredient. Units it does not know,
+ * such as "Bund" or "Dose", are not converted.
+ */
+@Component
+public class UnitConverter {
+
+  public static final String GRAM = "g";
+  public static final String MILLILITER = "ml";
+  public static final String PIECE = "Stück";
+
+  public enum Dimension {
+    MASS(GRAM), VOLUME(MILLILITER), COUNT(PIECE);
+
+    private final String baseUnit;
+
+    Dimension(String baseUnit) {
+      this.baseUnit = baseUnit;
+    }
+
+    public String baseUnit() {
+      return baseUnit;
+    }
+  }
+
+  /** An amount in the base unit of its dimension. */
+  public record Quantity(double amount, Dimension dimension) {}
+
+  private record Factor(Dimension dimension, double toBase) {}
+
+  private static final Map<String, Factor> UNITS = new HashMap<>();
+
+  static {
+    unit(Dimension.MASS, 1, "g", "gr", "gramm");
+    unit(Dimension.MASS, 1000, "kg", "kilo", "kilogramm");
+    unit(Dimension.MASS, 0.001, "mg", "milligramm");
+    unit(Dimension.MASS, 500, "pfund");
+    // Rough kitchen measures, they only matter for spices
+    unit(Dimension.MASS, 0.5, "prise", "prisen");
+    unit(Dimension.MASS, 0.3, "msp", "messerspitze", "messerspitzen");
+    unit(Dimension.VOLUME, 1, "ml", "milliliter");
+    unit(Dimension.VOLUME, 10, "cl", "zentiliter");
+    unit(Dimension.VOLUME, 100, "dl", "deziliter");
+    unit(Dimension.VOLUME, 1000, "l", "liter");
+    unit(Dimension.VOLUME, 15, "el", "esslöffel");
+    unit(Dimension.VOLUME, 5, "tl", "teelöffel");
+    unit(Dimension.VOLUME, 250, "tasse", "tassen", "cup", "cups");
+    unit(Dimension.COUNT, 1, "stück", "stk", "st", "stck");
+  }
+
+  private static void unit(Dimension dimension, double toBase, String... names) {
+    for (String name : names) UNITS.put(name, new Factor(dimension, toBase));
+  }
+
+  /**
+   * The amount in the base unit of the unit's dimension, empty for units that cannot be converted.
+   */
+  public Optional<Quantity> toBase(double amount, String unit) {
+    if (unit == null) return Optional.empty();
+    String key = unit.trim().toLowerCase(Locale.ROOT);
+    if (key.endsWith(".")) key = key.substring(0, key.length() - 1);
+    Factor factor = UNITS.get(key);
+    if (factor == null) return Optional.empty();
+    return Optional.of(new Quantity(amount * factor.toBase(), factor.dimension()));
+  }
+
+  /**
+   * Converts a quantity into the base unit of {@code target}. Empty if this needs a density or
+   * piece weight that is not known.
+   */
+  public OptionalDouble convert(Quantity quantity, Dimension target, Double density, Double pieceWeight) {
+    if (quantity.dimension() == target) return OptionalDouble.of(quantity.amount());
+    OptionalDouble grams = toGrams(quantity, density, pieceWeight);
+    if (grams.isEmpty()) return grams;
+    return switch (target) {
+      case MASS -> grams;
+      case VOLUME -> positive(density) ? OptionalDouble.of(grams.getAsDouble() / density) : OptionalDouble.empty();
+      case COUNT -> positive(pieceWeight) ? OptionalDouble.of(grams.getAsDouble() / pieceWeight) : OptionalDouble.empty();
+    };
+  }
+
+  private static OptionalDouble toGrams(Quantity quantity, Double density, Double pieceWeight) {
+    return switch (quantity.dimension()) {
+      case MASS -> OptionalDouble.of(quantity.amount());
+      case VOLUME -> positive(density) ? OptionalDouble.of(quantity.amount() * density) : OptionalDouble.empty();
+      case COUNT -> positive(pieceWeight) ? OptionalDouble.of(quantity.amount() * pieceWeight) : OptionalDouble.empty();
+    };
+  }
+
+  private static boolean positive(Double value) {
+    return value != null && value > 0;
+  }
+}
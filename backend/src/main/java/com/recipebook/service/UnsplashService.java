@@ -7,7 +7,6 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
-import reactor.core.publisher.Mono;
 
 @Service
 public class UnsplashService {
@@ -20,13 +19,20 @@ public class UnsplashService {
   private final WebClient webClient;
   private final ObjectMapper objectMapper;
 
-  public UnsplashService(ObjectMapper objectMapper) {
+  public UnsplashService(ObjectMapper objectMapper,
+      @Value("${unsplash.base-url:https://api.unsplash.com}") String baseUrl) {
     this.webClient = WebClient.builder()
-      .baseUrl("https://api.unsplash.com")
+      .baseUrl(baseUrl)
       .build();
     this.objectMapper = objectMapper;
   }
 
+  /**
+   * URL of the first landscape photo found for the title, null if there is none or no API key is
+   * configured.
+   *
+   * @throws LookupFailedException if Unsplash cannot be reached or answers with an error
+   */
   public String findImageUrl(String title) {
     if (apiKey == null || apiKey.isBlank()) return null;
     try {
@@ -35,10 +41,6 @@ public class UnsplashService {
         .header("Authorization", "Client-ID " + apiKey)
         .retrieve()
         .bodyToMono(String.class)
-        .onErrorResume(e -> {
-          log.warn("Unsplash error: {}", e.getMessage());
-          return Mono.empty();
-        })
         .blockOptional()
         .orElse(null);
       if (response == null) return null;
@@ -48,7 +50,7 @@ public class UnsplashService {
       return first.path("urls").path("regular").asText(null);
     } catch (Exception e) {
       log.warn("Unsplash error: {}", e.getMessage());
-      return null;
+      throw new LookupFailedException("Unsplash: " + e.getMessage(), e);
     }
   }
 }
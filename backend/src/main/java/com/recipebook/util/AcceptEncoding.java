@@ -0,0 +1,49 @@
+package com.recipebook.util;
+
+import java.util.Locale;
+
+/**
+ * Reads an Accept-Encoding header as a list of codings with optional weights, so "gzip;q=0" and
+ * "x-gzip-foo" are not taken for gzip the way a substring check would.
+ */
+public final class AcceptEncoding {
+
+  private AcceptEncoding() {}
+
+  /**
+   * Whether a gzip response is acceptable: gzip (or its alias x-gzip) is listed with a weight above
+   * zero, or it is not listed and "*" is. A malformed weight counts as zero, the client then gets
+   * the uncompressed body it can always read.
+   */
+  public static boolean acceptsGzip(String header) {
+    if (header == null) return false;
+    Double gzip = null;
+    Double any = null;
+    for (String element : header.split(",")) {
+      String[] parts = element.split(";");
+      String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+      double weight = weight(parts);
+      if (coding.equals("gzip") || coding.equals("x-gzip")) {
+        gzip = gzip == null ? weight : Math.max(gzip, weight);
+      } else if (coding.equals("*")) {
+        any = any == null ? weight : Math.max(any, weight);
+      }
+    }
+    if (gzip != null) return gzip > 0;
+    return any != null && any > 0;
+  }
+
+  private static double weight(String[] parts) {
+    for (int i = 1; i < parts.length; i++) {
+      String param = parts[i].trim();
+      if (param.length() < 2 || !param.substring(0, 2).equalsIgnoreCase("q=")) continue;
+      try {
+        double q = Double.parseDouble(param.substring(2).trim());
+        return q >= 0 && q <= 1 ? q : 0;
+      } catch (NumberFormatException e) {
+        return 0;
+      }
+    }
+    return 1;
+  }
+}
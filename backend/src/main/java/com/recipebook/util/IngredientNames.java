@@ -0,0 +1,104 @@
+package com.recipebook.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Reduces an ingredient name to the key it is matched by in the catalog, so "Eier" finds "Ei",
+ * "Zwiebeln" finds "Zwiebel", "Knoblauchzehen" finds "Knoblauch" and "Butter, weich" finds
+ * "Butter". The name is folded like {@link SearchText}, notes after a comma or in parentheses and
+ * preparation words are dropped, and every word goes through a light German stemmer. Catalog names
+ * get the same treatment, so a stem only has to be consistent, not a real word.
+ */
+public final class IngredientNames {
+
+  /**
+   * Version of the normalization. Raise it with every change to what {@link #matchKey} returns,
+   * the stored keys are then recomputed at the next start.
+   */
+  public static final int VERSION = 1;
+
+  private static final Pattern NOTES = Pattern.compile("[,(;]");
+
+  private static final Pattern PARENTHESES = Pattern.compile("\\([^)]*\\)?");
+
+  private static final Map<String, String> IRREGULAR = Map.of("eier", "ei", "eiern", "ei");
+
+  /** Count words at the end of compounds: a clove of garlic is garlic. */
+  private static final List<String> COUNT_SUFFIXES = List.of(
+      "zehen", "zehe", "scheiben", "scheibe", "stangen", "stange", "stengel", "stangel",
+      "blatter", "blatt", "zweige", "zweig", "knollen", "knolle");
+
+  private static final Set<String> PREPARATION = Set.of(
+      "frisch", "gehackt", "gewurfelt", "gerieben", "geschalt", "geschnitten", "gemahlen", "gepresst",
+      "geschmolzen", "weich", "zimmerwarm", "kalt", "warm", "fein", "grob", "klein", "gross", "mittelgross",
+      "reif", "tk", "tiefgekuhlt", "bio", "etwas")
+    .stream().map(IngredientNames::stem).collect(Collectors.toUnmodifiableSet());
+
+  /** Letters before which a final "s" is a plural ending: Champignons, Avocados. */
+  private static final String PLURAL_S = "bdfghklmntaio";
+
+  private IngredientNames() {}
+
+  /**
+   * The key {@code name} is matched by. Empty only for a name without any letter or digit, such a
+   * key must neither be looked up nor learned.
+   */
+  public static String matchKey(String name) {
+    if (name == null) return "";
+    List<String> words = SearchText.words(withoutNotes(name));
+    List<String> stems = new ArrayList<>();
+    for (String word : words) {
+      String stem = stem(withoutCountSuffix(word));
+      if (!PREPARATION.contains(stem)) stems.add(stem);
+    }
+    // A name made of preparation words only, keep it rather than match everything to ""
+    if (stems.isEmpty()) words.forEach(word -> stems.add(stem(word)));
+    return String.join(" ", stems);
+  }
+
+  private static String withoutNotes(String name) {
+    String head = NOTES.split(name, 2)[0];
+    if (!SearchText.words(head).isEmpty()) return head;
+    // A note in front, "(TK) Erbsen": the name is the first part outside the notes
+    for (String part : NOTES.split(PARENTHESES.matcher(name).replaceAll(" "))) {
+      if (!SearchText.words(part).isEmpty()) return part;
+    }
+    return name;
+  }
+
+  private static String withoutCountSuffix(String word) {
+    for (String suffix : COUNT_SUFFIXES) {
+      if (word.endsWith(suffix) && word.length() - suffix.length() >= 3) {
+        return word.substring(0, word.length() - suffix.length());
+      }
+    }
+    return word;
+  }
+
+  /**
+   * Strips one inflection ending, modelled on the German light stemmer by Savoy, plus "-ln"/"-rn"
+   * for plurals like Zwiebeln and Kartoffeln.
+   */
+  static String stem(String word) {
+    String irregular = IRREGULAR.get(word);
+    if (irregular != null) return irregular;
+    int length = word.length();
+    if (length > 5 && word.endsWith("ern")) {
+      length -= 3;
+    } else if (length > 4 && (word.endsWith("em") || word.endsWith("en") || word.endsWith("er") || word.endsWith("es"))) {
+      length -= 2;
+    } else if (length > 3 && word.endsWith("e")) {
+      length -= 1;
+    } else if (length > 3 && (word.endsWith("ln") || word.endsWith("rn"))) {
+      length -= 1;
+    } else if (length > 3 && word.endsWith("s") && PLURAL_S.indexOf(word.charAt(length - 2)) >= 0) {
+      length -= 1;
+    }
+    return word.substring(0, length);
+  }
+}
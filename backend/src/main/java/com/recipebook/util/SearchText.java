@@ -0,0 +1,36 @@
+package com.recipebook.util;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Text folding shared by the in-memory indexes: lower case, without diacritics and with ß as ss,
+ * so "Käse", "Kase" and "KÄSE" all end up as "kase".
+ */
+public final class SearchText {
+
+  private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+  private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+  private SearchText() {}
+
+  public static String normalize(String text) {
+    if (text == null) return "";
+    String decomposed = Normalizer.normalize(text.toLowerCase(Locale.GERMAN).replace("ß", "ss"), Normalizer.Form.NFD);
+    return DIACRITICS.matcher(decomposed).replaceAll("").trim();
+  }
+
+  /**
+   * Splits normalized text into words, dropping punctuation.
+   */
+  public static List<String> words(String text) {
+    List<String> words = new ArrayList<>();
+    for (String word : NON_WORD.split(normalize(text))) {
+      if (!word.isEmpty()) words.add(word);
+    }
+    return words;
+  }
+}
@@ -0,0 +1,18 @@
+-- Change feed for the recipe list: every write stamps the recipe (and its summary row) with the
+-- next value of a global sequence, deletions leave a tombstone with their own version
+CREATE SEQUENCE recipe_sync_version_seq;
+
+ALTER TABLE recipes ADD COLUMN updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP;
+ALTER TABLE recipes ADD COLUMN sync_version BIGINT NOT NULL DEFAULT nextval('recipe_sync_version_seq');
+
+ALTER TABLE recipe_summary ADD COLUMN sync_version BIGINT NOT NULL DEFAULT 0;
+UPDATE recipe_summary s SET sync_version = r.sync_version FROM recipes r WHERE r.id = s.recipe_id;
+CREATE INDEX idx_recipe_summary_sync_version ON recipe_summary(sync_version);
+
+CREATE TABLE recipe_tombstones (
+  recipe_id    BIGINT PRIMARY KEY,
+  sync_version BIGINT NOT NULL,
+  deleted_at   TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_recipe_tombstones_sync_version ON recipe_tombstones(sync_version);
@@ -0,0 +1,18 @@
+-- Full-text search over recipes with German stemming. The document is weighted
+-- title (A) > ingredients (B) > description (C) > instructions (D) and is rebuilt by the
+-- application after every save through recipe_search_vector().
+CREATE FUNCTION recipe_search_vector(p_recipe_id BIGINT) RETURNS tsvector
+LANGUAGE sql STABLE AS $$
+  SELECT setweight(to_tsvector('german', COALESCE(r.title, '')), 'A')
+      || setweight(to_tsvector('german', COALESCE(
+           (SELECT STRING_AGG(i.name, ' ') FROM ingredients i WHERE i.recipe_id = r.id), '')), 'B')
+      || setweight(to_tsvector('german', COALESCE(r.description, '')), 'C')
+      || setweight(to_tsvector('german', COALESCE(
+           (SELECT STRING_AGG(s.step, ' ') FROM recipe_instructions s WHERE s.recipe_id = r.id), '')), 'D')
+  FROM recipes r
+  WHERE r.id = p_recipe_id
+$$;
+
+ALTER TABLE recipes ADD COLUMN search_vector tsvector;
+UPDATE recipes SET search_vector = recipe_search_vector(id);
+CREATE INDEX idx_recipes_search_vector ON recipes USING GIN (search_vector);
@@ -0,0 +1,13 @@
+-- Recipes, ingredients and users get their ids from pooled sequences instead of IDENTITY, so
+-- Hibernate can assign ids without a round trip per row and batch the inserts. Each nextval
+-- reserves a block of 50 ids (allocationSize in the entity mappings). The column defaults stay,
+-- a plain INSERT still draws a fresh value that lies outside every block handed out.
+-- The sequences only move forward: ids of deleted recipes may still be referenced by tombstones.
+ALTER SEQUENCE recipes_id_seq INCREMENT BY 50;
+SELECT setval('recipes_id_seq', GREATEST((SELECT last_value FROM recipes_id_seq), COALESCE(MAX(id), 0)) + 50, false) FROM recipes;
+
+ALTER SEQUENCE ingredients_id_seq INCREMENT BY 50;
+SELECT setval('ingredients_id_seq', GREATEST((SELECT last_value FROM ingredients_id_seq), COALESCE(MAX(id), 0)) + 50, false) FROM ingredients;
+
+ALTER SEQUENCE users_id_seq INCREMENT BY 50;
+SELECT setval('users_id_seq', GREATEST((SELECT last_value FROM users_id_seq), COALESCE(MAX(id), 0)) + 50, false) FROM users;
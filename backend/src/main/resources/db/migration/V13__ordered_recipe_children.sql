@@ -0,0 +1,17 @@
+-- Ingredients and steps keep the order they were entered in. Rows are numbered in their current
+-- physical order, which is the order they were inserted in since updates used to rewrite them all.
+ALTER TABLE recipe_instructions ADD COLUMN sort_order INT;
+UPDATE recipe_instructions st SET sort_order = numbered.sort_order
+FROM (SELECT ctid, ROW_NUMBER() OVER (PARTITION BY recipe_id ORDER BY ctid) - 1 AS sort_order
+      FROM recipe_instructions) numbered
+WHERE st.ctid = numbered.ctid;
+ALTER TABLE recipe_instructions ALTER COLUMN sort_order SET NOT NULL;
+-- A single step is updated in place by (recipe_id, sort_order)
+ALTER TABLE recipe_instructions ADD PRIMARY KEY (recipe_id, sort_order);
+DROP INDEX idx_recipe_instructions_recipe_id;
+
+ALTER TABLE ingredients ADD COLUMN sort_order INT NOT NULL DEFAULT 0;
+UPDATE ingredients i SET sort_order = numbered.sort_order
+FROM (SELECT id, ROW_NUMBER() OVER (PARTITION BY recipe_id ORDER BY id) - 1 AS sort_order
+      FROM ingredients) numbered
+WHERE i.id = numbered.id;
@@ -0,0 +1,2 @@
+-- Optimistic locking: every update of a recipe increments its version, which clients see as ETag
+ALTER TABLE recipes ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,19 @@
+-- Transactional outbox for slow enrichment (Unsplash image, nutrition via catalog/OpenAI). Jobs are
+-- written in the same transaction as the recipe and processed by EnrichmentWorker after commit.
+ALTER TABLE recipes ADD COLUMN enrichment_status VARCHAR(20) NOT NULL DEFAULT 'DONE';
+
+CREATE TABLE enrichment_jobs (
+  id         BIGSERIAL PRIMARY KEY,
+  recipe_id  BIGINT NOT NULL REFERENCES recipes(id) ON DELETE CASCADE,
+  kind       VARCHAR(20) NOT NULL,
+  -- Bumped when the job is requested again while queued or running, so a finishing worker
+  -- does not remove the newer request
+  revision   INT NOT NULL DEFAULT 0,
+  attempts   INT NOT NULL DEFAULT 0,
+  run_after  TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  last_error TEXT,
+  created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  UNIQUE (recipe_id, kind)
+);
+
+CREATE INDEX idx_enrichment_jobs_run_after ON enrichment_jobs(run_after);
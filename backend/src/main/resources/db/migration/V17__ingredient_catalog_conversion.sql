@@ -0,0 +1,3 @@
+-- Lets one catalog entry serve every unit: grams per millilitre and per piece of the ingredient
+ALTER TABLE ingredient_catalog ADD COLUMN density DOUBLE PRECISION;
+ALTER TABLE ingredient_catalog ADD COLUMN piece_weight DOUBLE PRECISION;
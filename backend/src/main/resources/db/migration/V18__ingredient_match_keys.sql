@@ -0,0 +1,19 @@
+-- Nutrition lookups match ingredients by a normalized name (IngredientNames.matchKey). The keys are
+-- computed in Java, the normalization has no SQL equivalent: IngredientMatchKeyRunner fills them in
+-- at startup and again whenever the normalization changes.
+ALTER TABLE ingredient_catalog ADD COLUMN match_key VARCHAR(255) NOT NULL DEFAULT '';
+CREATE INDEX idx_ingredient_catalog_match_key_unit ON ingredient_catalog (match_key, unit);
+
+-- Version of the normalization the stored keys were computed with, 0 before the first run
+CREATE TABLE ingredient_match_key_version (
+  version INTEGER NOT NULL
+);
+INSERT INTO ingredient_match_key_version (version) VALUES (0);
+
+-- Learned aliases: ingredients with match_key use the catalog entries of target_key
+CREATE TABLE ingredient_aliases (
+  match_key  VARCHAR(255) PRIMARY KEY,
+  target_key VARCHAR(255) NOT NULL,
+  created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+CREATE INDEX idx_ingredient_aliases_target_key ON ingredient_aliases (target_key);
@@ -0,0 +1,35 @@
+-- Denormalized read model for the recipe list, maintained by the application on every write
+CREATE TABLE recipe_summary (
+  recipe_id         BIGINT PRIMARY KEY REFERENCES recipes(id) ON DELETE CASCADE,
+  user_id           BIGINT,
+  title             VARCHAR(255) NOT NULL,
+  description       TEXT,
+  image_url         TEXT,
+  prep_time_minutes INTEGER,
+  base_servings     INTEGER,
+  servings_to       INTEGER,
+  ingredient_count  BIGINT NOT NULL DEFAULT 0,
+  author            VARCHAR(255),
+  source            VARCHAR(255),
+  created_by        VARCHAR(511) NOT NULL DEFAULT '',
+  ingredient_names  TEXT,
+  nutrition_kcal    DOUBLE PRECISION,
+  nutrition_fat     DOUBLE PRECISION,
+  nutrition_protein DOUBLE PRECISION,
+  nutrition_fiber   DOUBLE PRECISION
+);
+
+CREATE INDEX idx_recipe_summary_user_id ON recipe_summary(user_id);
+
+INSERT INTO recipe_summary (recipe_id, user_id, title, description, image_url, prep_time_minutes, base_servings,
+  servings_to, ingredient_count, author, source, created_by, ingredient_names,
+  nutrition_kcal, nutrition_fat, nutrition_protein, nutrition_fiber)
+SELECT r.id, r.user_id, r.title, r.description, r.image_url, r.prep_time_minutes, r.base_servings,
+  r.servings_to, COUNT(i.id), r.author, r.source,
+  COALESCE(CONCAT_WS(' ', NULLIF(u.vorname, ''), NULLIF(u.nachname, '')), ''),
+  STRING_AGG(i.name, ', '),
+  r.nutrition_kcal, r.nutrition_fat, r.nutrition_protein, r.nutrition_fiber
+FROM recipes r
+LEFT JOIN ingredients i ON i.recipe_id = r.id
+LEFT JOIN users u ON u.id = r.user_id
+GROUP BY r.id, u.vorname, u.nachname;
@@ -0,0 +1,76 @@
+package com.recipebook.repository;
+
+import com.recipebook.model.IngredientAlias;
+import com.recipebook.model.IngredientCatalog;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The bulk catalog lookup resolves all ingredients of a recipe, aliases included, in one query. Runs on H2 with the
+ * schema generated from the mappings, the Flyway migrations are PostgreSQL-specific.
+ */
+@DataJpaTest(properties = {
+    "spring.flyway.enabled=false",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class IngredientCatalogRepositoryTest {
+
+    @Autowired
+    private IngredientCatalogRepository repository;
+
+    @Autowired
+    private IngredientAliasRepository aliasRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        repository.saveAllAndFlush(List.of(
+            new IngredientCatalog("Mehl", "g", 3.4, null, null, null, null),
+            new IngredientCatalog("Zucker", "g", 4.0, null, null, null, null),
+            new IngredientCatalog("zucker", "g", 9.0, null, null, null, null),
+            new IngredientCatalog("Zucker", "EL", 48.0, null, null, null, null),
+            new IngredientCatalog("Butter", "g", 7.4, null, null, null, null),
+            new IngredientCatalog("Frühlingszwiebel", "g", 0.3, null, null, null, null)));
+        aliasRepository.saveAndFlush(new IngredientAlias("lauchzwiebel", "fruhlingszwiebel"));
+        entityManager.clear();
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void findAllByLookupKey_shouldResolveAllIngredientsInOneQuery() {
+        Map<String, IngredientCatalog> found = repository.findAllByLookupKey(
+            List.of("MEHL", " Zucker", "Salz", "Butter, weich", "Lauchzwiebeln"), List.of("g", "EL ", "Prise"));
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(3.4, found.get(IngredientCatalog.lookupKey("mehl", "g")).getNutritionKcal());
+        assertEquals(48.0, found.get(IngredientCatalog.lookupKey("zucker", "EL")).getNutritionKcal());
+        // Of names differing only in case the oldest entry wins
+        assertEquals(4.0, found.get(IngredientCatalog.lookupKey("Zucker", "g")).getNutritionKcal());
+        assertNull(found.get(IngredientCatalog.lookupKey("Salz", "Prise")));
+        assertEquals(7.4, found.get(IngredientCatalog.lookupKey("Butter, weich", "g")).getNutritionKcal());
+        assertEquals(0.3, found.get(IngredientCatalog.lookupKey("Lauchzwiebeln", "g")).getNutritionKcal());
+        assertNull(found.get(IngredientCatalog.lookupKey("Butter", "EL")));
+    }
+
+    @Test
+    void findAllByLookupKey_shouldNotQueryForNoIngredients() {
+        assertTrue(repository.findAllByLookupKey(List.of(), List.of()).isEmpty());
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+}
@@ -0,0 +1,85 @@
+package com.recipebook.repository;
+
+import com.recipebook.model.Ingredient;
+import com.recipebook.model.Recipe;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Counts the JDBC statements Hibernate prepares to insert a recipe. With pooled sequence ids and
+ * insert batching the count no longer grows with the number of ingredients and steps. Runs on H2
+ * with the schema generated from the mappings, the Flyway migrations are PostgreSQL-specific.
+ */
+@DataJpaTest(properties = {
+    "spring.flyway.enabled=false",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class RecipeRepositoryBatchingTest {
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void save_shouldInsertIngredientsAndStepsInBatches() {
+        recipeRepository.saveAndFlush(recipe("Aufwärmen"));
+        entityManager.clear();
+        statistics.clear();
+
+        recipeRepository.saveAndFlush(recipe("Eintopf"));
+
+        // recipe row, one ingredient batch, one instruction batch and at most one sequence call per entity
+        assertTrue(statistics.getPrepareStatementCount() <= 5,
+            "prepared statements: " + statistics.getPrepareStatementCount());
+        assertEquals(26, statistics.getEntityInsertCount());
+    }
+
+    @Test
+    void save_shouldAssignIdsFromPooledSequenceBeforeFlush() {
+        Recipe first = recipeRepository.save(recipe("Erstes"));
+        Recipe second = recipeRepository.save(recipe("Zweites"));
+
+        assertNotNull(first.getId());
+        assertEquals(first.getId() + 1, second.getId());
+        assertEquals(0, statistics.getEntityInsertCount());
+    }
+
+    private static Recipe recipe(String title) {
+        Recipe recipe = new Recipe();
+        recipe.setTitle(title);
+        List<Ingredient> ingredients = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            Ingredient ingredient = new Ingredient();
+            ingredient.setName("Zutat " + i);
+            ingredient.setAmount(String.valueOf(i));
+            ingredient.setUnit("g");
+            ingredient.setRecipe(recipe);
+            ingredients.add(ingredient);
+        }
+        recipe.setIngredients(ingredients);
+        recipe.setInstructions(IntStream.range(0, 15).mapToObj(i -> "Schritt " + i).toList());
+        return recipe;
+    }
+}
@@ -0,0 +1,67 @@
+package com.recipebook.service;
+
+import com.recipebook.dto.SuggestionDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class AutocompleteIndexTest {
+
+    private AutocompleteIndex index;
+
+    @BeforeEach
+    void setUp() {
+        IndexedRecipeLoader loader = mock(IndexedRecipeLoader.class);
+        when(loader.loadAll()).thenReturn(List.of(
+            new IndexedRecipe(1L, "Spaghetti Carbonara", "Chefkoch", "Anna", List.of("Spaghetti", "Knoblauch"), List.of("g", "Zehe")),
+            new IndexedRecipe(2L, "Guacamole", null, null, List.of("Knoblauchzehen", "Knoblauch"), List.of("EL", "g"))
+        ));
+        index = new AutocompleteIndex(loader);
+        index.rebuild();
+    }
+
+    @Test
+    void suggest_shouldOrderByNumberOfRecipes() {
+        List<SuggestionDto> suggestions = index.suggest(AutocompleteIndex.Type.INGREDIENT, "kno", 10);
+
+        assertEquals(List.of("Knoblauch", "Knoblauchzehen"), suggestions.stream().map(SuggestionDto::getValue).toList());
+        assertEquals(2, suggestions.get(0).getCount());
+    }
+
+    @Test
+    void suggest_shouldMatchAnyWordStart() {
+        assertEquals("Spaghetti Carbonara", index.suggest(AutocompleteIndex.Type.TITLE, "carb", 10).get(0).getValue());
+        assertEquals("Anna", index.suggest(AutocompleteIndex.Type.SOURCE, "chef", 10).get(0).getHint());
+    }
+
+    @Test
+    void onDeleted_shouldDropValuesNoLongerUsed() {
+        index.onDeleted(new RecipeDeletedEvent(2L));
+
+        assertEquals(List.of("g", "Zehe"), index.allUnits());
+        assertEquals(1, index.suggest(AutocompleteIndex.Type.INGREDIENT, "knoblauch", 10).size());
+    }
+
+    @Test
+    void onSaved_shouldReplaceOnlyTheChangedValues() {
+        index.onSaved(new RecipeSavedEvent(new IndexedRecipe(2L, "Guacamole mit Limette", "Chefkoch", "Ben",
+            List.of("Avocado"), List.of("Stück"))));
+
+        assertTrue(index.suggest(AutocompleteIndex.Type.TITLE, "guac", 10).stream()
+            .allMatch(s -> s.getValue().equals("Guacamole mit Limette")));
+        assertEquals("Guacamole mit Limette", index.suggest(AutocompleteIndex.Type.TITLE, "lim", 10).get(0).getValue());
+        assertEquals(List.of("Knoblauch"), index.suggest(AutocompleteIndex.Type.INGREDIENT, "kno", 10).stream()
+            .map(SuggestionDto::getValue).toList());
+        // Two authors of one source share the word starts of the source
+        assertEquals(2, index.suggest(AutocompleteIndex.Type.SOURCE, "chef", 10).size());
+
+        index.onDeleted(new RecipeDeletedEvent(1L));
+        assertEquals(List.of("Ben"), index.suggest(AutocompleteIndex.Type.SOURCE, "chef", 10).stream()
+            .map(SuggestionDto::getHint).toList());
+        assertTrue(index.suggest(AutocompleteIndex.Type.TITLE, "spa", 10).isEmpty());
+    }
+}
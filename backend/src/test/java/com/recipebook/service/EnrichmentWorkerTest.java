@@ -0,0 +1,213 @@
+package com.recipebook.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.recipebook.model.Ingredient;
+import com.recipebook.model.Recipe;
+import com.recipebook.repository.RecipeRepository;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EnrichmentWorkerTest {
+
+    @Mock
+    private EnrichmentQueue queue;
+
+    @Mock
+    private RecipeRepository recipeRepository;
+
+    @Mock
+    private RecipeService recipeService;
+
+    @Mock
+    private UnsplashService unsplashService;
+
+    @Mock
+    private NutritionService nutritionService;
+
+    private EnrichmentWorker worker;
+    private Recipe recipe;
+    private HttpServer server;
+
+    @BeforeEach
+    void setUp() {
+        worker = new EnrichmentWorker(queue, recipeRepository, recipeService, unsplashService, nutritionService,
+            new EnrichmentCoordinator(500), 1, 3, 1000);
+        recipe = new Recipe();
+        recipe.setId(1L);
+        recipe.setTitle("Pfannkuchen");
+        recipe.setIngredients(List.of());
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (server != null) server.stop(0);
+    }
+
+    @Test
+    void process_shouldRetryWhenUnsplashAnswersWithAnError() throws IOException {
+        UnsplashService unsplash = new UnsplashService(new ObjectMapper(), startServer(503));
+        ReflectionTestUtils.setField(unsplash, "apiKey", "key");
+        EnrichmentWorker realLookups = new EnrichmentWorker(queue, recipeRepository, recipeService, unsplash, nutritionService,
+            new EnrichmentCoordinator(5000), 1, 3, 1000);
+        EnrichmentJob job = new EnrichmentJob(1L, 1L, EnrichmentJob.Kind.IMAGE, 0, 1);
+        when(recipeRepository.findWithIngredientsById(1L)).thenReturn(Optional.of(recipe));
+
+        realLookups.process(List.of(job));
+
+        verify(queue).retryLater(eq(job), eq(30L), contains("503"));
+        verify(recipeService, never()).completeImageEnrichment(any(), any());
+    }
+
+    @Test
+    void process_shouldRetryWhenOpenAiIsRateLimitedInsteadOfSavingAPartialTotal() throws IOException {
+        IngredientCatalogCache catalogCache = mock(IngredientCatalogCache.class);
+        when(catalogCache.findAll(any(), any())).thenReturn(Map.of());
+        NutritionService nutrition = new NutritionService(new ObjectMapper(), catalogCache,
+            mock(IngredientCatalogWriter.class), new UnitConverter(), startServer(429));
+        ReflectionTestUtils.setField(nutrition, "apiKey", "key");
+        EnrichmentWorker realLookups = new EnrichmentWorker(queue, recipeRepository, recipeService, unsplashService, nutrition,
+            new EnrichmentCoordinator(5000), 1, 3, 1000);
+        recipe.setIngredients(List.of(new Ingredient("Mehl", "200", "g")));
+        EnrichmentJob job = new EnrichmentJob(2L, 1L, EnrichmentJob.Kind.NUTRITION, 0, 1);
+        when(recipeRepository.findWithIngredientsById(1L)).thenReturn(Optional.of(recipe));
+
+        realLookups.process(List.of(job));
+
+        verify(queue).retryLater(eq(job), eq(30L), contains("429"));
+        verify(recipeService, never()).completeNutritionEnrichment(any(), any());
+    }
+
+    @Test
+    void process_shouldWriteImageBackThroughRecipeService() {
+        EnrichmentJob job = new EnrichmentJob(1L, 1L, EnrichmentJob.Kind.IMAGE, 0, 1);
+        when(recipeRepository.findWithIngredientsById(1L)).thenReturn(Optional.of(recipe));
+        when(unsplashService.findImageUrl("Pfannkuchen")).thenReturn("https://images.unsplash.com/p");
+
+        worker.process(List.of(job));
+
+        verify(recipeService).completeImageEnrichment(job, "https://images.unsplash.com/p");
+        verifyNoInteractions(queue);
+    }
+
+    @Test
+    void process_shouldRetryWithBackoffWhileAttemptsRemain() {
+        EnrichmentJob job = new EnrichmentJob(2L, 1L, EnrichmentJob.Kind.NUTRITION, 0, 2);
+        when(recipeRepository.findWithIngredientsById(1L)).thenReturn(Optional.of(recipe));
+        when(nutritionService.calculateNutrition(any())).thenThrow(new LookupFailedException("timeout"));
+
+        worker.process(List.of(job));
+
+        verify(queue).retryLater(job, 60, "timeout");
+        verify(recipeService, never()).failEnrichment(any());
+    }
+
+    @Test
+    void process_shouldGiveUpAfterMaxAttempts() {
+        EnrichmentJob job = new EnrichmentJob(2L, 1L, EnrichmentJob.Kind.NUTRITION, 0, 3);
+        when(recipeRepository.findWithIngredientsById(1L)).thenReturn(Optional.of(recipe));
+        when(nutritionService.calculateNutrition(any())).thenThrow(new LookupFailedException("timeout"));
+
+        worker.process(List.of(job));
+
+        verify(recipeService).failEnrichment(job);
+        verify(queue, never()).retryLater(any(), anyLong(), any());
+    }
+
+    @Test
+    void process_shouldSkipJobOfDeletedRecipe() {
+        when(recipeRepository.findWithIngredientsById(1L)).thenReturn(Optional.empty());
+
+        worker.process(List.of(new EnrichmentJob(1L, 1L, EnrichmentJob.Kind.IMAGE, 0, 1)));
+
+        verifyNoInteractions(unsplashService, recipeService);
+    }
+
+    @Test
+    void process_shouldRunLookupsOfOneRecipeConcurrently() {
+        EnrichmentJob image = new EnrichmentJob(1L, 1L, EnrichmentJob.Kind.IMAGE, 0, 1);
+        EnrichmentJob nutrition = new EnrichmentJob(2L, 1L, EnrichmentJob.Kind.NUTRITION, 0, 1);
+        NutritionService.NutritionResult result = new NutritionService.NutritionResult(1, 2, 3, 4, 5);
+        // Each call waits for the other one, in sequence they would both run into the deadline
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        when(recipeRepository.findWithIngredientsById(1L)).thenReturn(Optional.of(recipe));
+        when(unsplashService.findImageUrl("Pfannkuchen")).thenAnswer(invocation -> {
+            bothStarted.countDown();
+            bothStarted.await();
+            return "https://images.unsplash.com/p";
+        });
+        when(nutritionService.calculateNutrition(any())).thenAnswer(invocation -> {
+            bothStarted.countDown();
+            bothStarted.await();
+            return result;
+        });
+
+        worker.process(List.of(image, nutrition));
+
+        verify(recipeService).completeImageEnrichment(image, "https://images.unsplash.com/p");
+        verify(recipeService).completeNutritionEnrichment(nutrition, result);
+        verifyNoInteractions(queue);
+    }
+
+    @Test
+    void process_shouldCancelLookupsPastTheDeadlineAndKeepTheOthers() {
+        EnrichmentJob image = new EnrichmentJob(1L, 1L, EnrichmentJob.Kind.IMAGE, 0, 1);
+        EnrichmentJob nutrition = new EnrichmentJob(2L, 1L, EnrichmentJob.Kind.NUTRITION, 0, 1);
+        when(recipeRepository.findWithIngredientsById(1L)).thenReturn(Optional.of(recipe));
+        when(unsplashService.findImageUrl("Pfannkuchen")).thenAnswer(invocation -> {
+            Thread.sleep(10_000);
+            return null;
+        });
+        when(nutritionService.calculateNutrition(any())).thenReturn(null);
+
+        long start = System.nanoTime();
+        worker.process(List.of(image, nutrition));
+
+        // process waits for all calls, so returning early means the sleeping one was interrupted
+        assertTrue(System.nanoTime() - start < 5_000_000_000L);
+        verify(queue).retryLater(image, 30, "deadline exceeded");
+        verify(recipeService, never()).completeImageEnrichment(any(), any());
+        verify(recipeService).completeNutritionEnrichment(nutrition, null);
+    }
+
+    /** A local server answering every request with {@code status}, returns its base URL. */
+    private String startServer(int status) throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            exchange.sendResponseHeaders(status, -1);
+            exchange.close();
+        });
+        server.start();
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    @Test
+    void poll_shouldClaimOnlyAsManyJobsAsWorkersAreIdle() {
+        when(queue.claim(1)).thenReturn(List.of());
+
+        worker.poll();
+
+        verify(queue).claim(eq(1));
+        worker.shutdown();
+    }
+}
@@ -0,0 +1,63 @@
+package com.recipebook.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImageVariantServiceTest {
+
+    @TempDir
+    Path imageDir;
+
+    private ImageStorageService imageStorageService;
+    private ImageVariantService imageVariantService;
+
+    @BeforeEach
+    void setUp() {
+        imageStorageService = new ImageStorageService();
+        ReflectionTestUtils.setField(imageStorageService, "imageDir", imageDir.toString());
+        imageVariantService = new ImageVariantService(imageStorageService, 1, 10);
+    }
+
+    @AfterEach
+    void tearDown() {
+        imageVariantService.shutdown();
+    }
+
+    @Test
+    void resolveVariant_shouldQueueMissingVariantInsteadOfRenderingIt() throws Exception {
+        String url = imageStorageService.storeDataUrl(pngDataUrl(1200, 800));
+        String variant = imageVariantService.thumbnailUrl(url).substring(ImageStorageService.URL_PREFIX.length());
+
+        assertTrue(imageVariantService.resolveVariant(variant).isEmpty());
+
+        Path rendered = imageDir.resolve(variant);
+        for (int i = 0; i < 100 && !Files.exists(rendered); i++) Thread.sleep(50);
+        assertEquals(rendered, imageVariantService.resolveVariant(variant).orElseThrow());
+        assertEquals(ImageVariantService.CARD_WIDTH, ImageIO.read(rendered.toFile()).getWidth());
+    }
+
+    @Test
+    void resolveVariant_shouldRejectUnsupportedWidths() {
+        assertTrue(imageVariantService.resolveVariant("a".repeat(64) + "-123.jpg").isEmpty());
+        assertTrue(imageVariantService.resolveVariant("a".repeat(64) + "-320.jpg").isEmpty());
+        assertTrue(imageVariantService.resolveVariant("../secret.jpg").isEmpty());
+    }
+
+    private static String pngDataUrl(int width, int height) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "png", out);
+        return "data:image/png;base64," + Base64.getEncoder().encodeToString(out.toByteArray());
+    }
+}
@@ -0,0 +1,149 @@
+package com.recipebook.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InFlightLookupsTest {
+
+    private final InFlightLookups<String> lookups = new InFlightLookups<>();
+    private final List<List<String>> loaded = new CopyOnWriteArrayList<>();
+    private final List<Map<String, String>> stored = new CopyOnWriteArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void load_shouldShareRunningLookupWithConcurrentCaller() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Map<String, String>> first = CompletableFuture.supplyAsync(() ->
+            lookups.load(List.of("mehl\ng"), keys -> {
+                started.countDown();
+                await(release);
+                return load(keys);
+            }, stored::add));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture<Map<String, String>> second = CompletableFuture.supplyAsync(() ->
+            lookups.load(List.of("mehl\ng", "zucker\ng"), this::load, stored::add));
+        // The second caller loads its other key itself, then waits for the shared one
+        Thread.sleep(200);
+        assertFalse(second.isDone());
+        release.countDown();
+
+        assertEquals(Map.of("mehl\ng", "mehl\ng!"), first.get(5, TimeUnit.SECONDS));
+        assertEquals(Map.of("mehl\ng", "mehl\ng!", "zucker\ng", "zucker\ng!"), second.get(5, TimeUnit.SECONDS));
+        assertEquals(2, loaded.size());
+        assertTrue(loaded.contains(List.of("mehl\ng")));
+        assertTrue(loaded.contains(List.of("zucker\ng")));
+        // Each result is stored once, by the caller that loaded it
+        assertEquals(2, stored.size());
+    }
+
+    @Test
+    void load_shouldFailSharingCallerWhenLookupFails() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Map<String, String>> first = CompletableFuture.supplyAsync(() ->
+            lookups.load(List.of("mehl\ng"), keys -> {
+                started.countDown();
+                await(release);
+                throw new LookupFailedException("OpenAI: 429 Too Many Requests");
+            }, stored::add));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture<Map<String, String>> second = CompletableFuture.supplyAsync(() ->
+            lookups.load(List.of("mehl\ng"), this::load, stored::add));
+        Thread.sleep(200);
+        release.countDown();
+
+        ExecutionException firstFailure = assertThrows(ExecutionException.class, () -> first.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(LookupFailedException.class, firstFailure.getCause());
+        ExecutionException secondFailure = assertThrows(ExecutionException.class, () -> second.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(LookupFailedException.class, secondFailure.getCause());
+        assertEquals("OpenAI: 429 Too Many Requests", secondFailure.getCause().getMessage());
+        assertTrue(loaded.isEmpty());
+        assertTrue(stored.isEmpty());
+
+        // The failed key is not kept registered, the next caller looks it up again
+        assertEquals(Map.of("mehl\ng", "mehl\ng!"), lookups.load(List.of("mehl\ng"), this::load, stored::add));
+    }
+
+    @Test
+    void load_shouldFailWhenInterruptedWhileWaitingForSharedLookup() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture.runAsync(() ->
+            lookups.load(List.of("mehl\ng"), keys -> {
+                started.countDown();
+                await(release);
+                return load(keys);
+            }, stored::add));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        try {
+            Thread.currentThread().interrupt();
+            assertThrows(LookupFailedException.class, () -> lookups.load(List.of("mehl\ng"), this::load, stored::add));
+            assertTrue(Thread.interrupted());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void load_shouldLoadAgainOnceLookupHasFinished() {
+        lookups.load(List.of("mehl\ng"), this::load, stored::add);
+        lookups.load(List.of("mehl\ng"), this::load, stored::add);
+
+        assertEquals(2, loaded.size());
+    }
+
+    @Test
+    void load_shouldShareResultUntilTransactionHasCompleted() throws Exception {
+        TransactionSynchronizationManager.initSynchronization();
+        lookups.load(List.of("mehl\ng"), this::load, stored::add);
+
+        Map<String, String> beforeCommit = CompletableFuture.supplyAsync(() ->
+            lookups.load(List.of("mehl\ng"), this::load, stored::add)).get(5, TimeUnit.SECONDS);
+        assertEquals(Map.of("mehl\ng", "mehl\ng!"), beforeCommit);
+        assertEquals(1, loaded.size());
+
+        TransactionSynchronizationManager.getSynchronizations()
+            .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        CompletableFuture.runAsync(() -> lookups.load(List.of("mehl\ng"), this::load, stored::add)).get(5, TimeUnit.SECONDS);
+        assertEquals(2, loaded.size());
+    }
+
+    private Map<String, String> load(List<String> keys) {
+        loaded.add(new ArrayList<>(keys));
+        Map<String, String> results = new HashMap<>();
+        keys.forEach(key -> results.put(key, key + "!"));
+        return results;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
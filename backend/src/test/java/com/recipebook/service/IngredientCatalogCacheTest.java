@@ -0,0 +1,179 @@
+package com.recipebook.service;
+
+import com.recipebook.model.IngredientAlias;
+import com.recipebook.model.IngredientCatalog;
+import com.recipebook.repository.IngredientAliasRepository;
+import com.recipebook.repository.IngredientCatalogRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IngredientCatalogCacheTest {
+
+    @Mock
+    private IngredientCatalogRepository repository;
+
+    @Mock
+    private IngredientAliasRepository aliasRepository;
+
+    private IngredientCatalogCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new IngredientCatalogCache(repository, aliasRepository, true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void findAll_shouldMatchNameIgnoringCaseAndLoadOnlyOnce() {
+        when(repository.findAll(any(Sort.class))).thenReturn(List.of(entry(1L, "Mehl", "g", 3.4)));
+
+        assertEquals(3.4, find(" mehl ", "g").getNutritionKcal());
+        assertEquals(3.4, find("MEHL", " g").getNutritionKcal());
+        assertNull(find("Mehl", "EL"));
+        verify(repository, times(1)).findAll(any(Sort.class));
+    }
+
+    @Test
+    void findAll_shouldPreferOldestEntryForNamesDifferingInCase() {
+        when(repository.findAll(any(Sort.class))).thenReturn(List.of(entry(1L, "Zucker", "g", 4.0), entry(2L, "zucker", "g", 9.0)));
+
+        assertEquals(1L, find("zucker", "g").getId());
+    }
+
+    @Test
+    void findAll_shouldMatchNormalizedNamesAndAliases() {
+        when(repository.findAll(any(Sort.class))).thenReturn(List.of(
+            entry(1L, "Frühlingszwiebel", "Stück", 12.0), entry(2L, "Lauchzwiebeln", "g", 0.3)));
+        when(aliasRepository.findAll()).thenReturn(List.of(new IngredientAlias("lauchzwiebel", "fruhlingszwiebel")));
+
+        assertEquals(1L, find("Frühlingszwiebeln, in Ringen", "Stück").getId());
+        assertEquals(1L, find("Lauchzwiebel", "Stück").getId());
+        // The entry of the name itself wins over the alias
+        assertEquals(2L, find("Lauchzwiebel", "g").getId());
+        assertNull(find("Frühlingszwiebel", "g"));
+    }
+
+    @Test
+    void findAll_shouldQueryDatabaseWhenDisabled() {
+        IngredientCatalogCache disabled = new IngredientCatalogCache(repository, aliasRepository, false);
+        when(repository.findAllByLookupKey(List.of("Mehl"), List.of("g")))
+            .thenReturn(Map.of(IngredientCatalog.lookupKey("Mehl", "g"), entry(1L, "Mehl", "g", 3.4)));
+
+        disabled.load();
+        Map<String, IngredientCatalog> found = disabled.findAll(List.of("Mehl"), List.of("g"));
+
+        assertEquals(3.4, found.get(IngredientCatalog.lookupKey("mehl", "g")).getNutritionKcal());
+        verify(repository, never()).findAll(any(Sort.class));
+    }
+
+    @Test
+    void invalidate_shouldReloadOnNextLookup() {
+        when(repository.findAll(any(Sort.class)))
+            .thenReturn(List.of(entry(1L, "Mehl", "g", 3.4)))
+            .thenReturn(List.of(entry(1L, "Mehl", "g", 3.5)));
+        find("Mehl", "g");
+
+        cache.invalidate();
+
+        assertEquals(3.5, find("Mehl", "g").getNutritionKcal());
+        verify(repository, times(2)).findAll(any(Sort.class));
+    }
+
+    @Test
+    void invalidate_shouldWaitForCommitInsideTransaction() {
+        when(repository.findAll(any(Sort.class))).thenReturn(List.of(entry(1L, "Mehl", "g", 3.4)));
+        find("Mehl", "g");
+        TransactionSynchronizationManager.initSynchronization();
+
+        cache.invalidate();
+        find("Mehl", "g");
+        verify(repository, times(1)).findAll(any(Sort.class));
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        find("Mehl", "g");
+        verify(repository, times(2)).findAll(any(Sort.class));
+    }
+
+    @Test
+    void refresh_shouldReloadOnlyTheGivenKeys() {
+        when(repository.findAll(any(Sort.class))).thenReturn(List.of(entry(1L, "Mehl", "g", 3.4), entry(2L, "Zucker", "g", 4.0)));
+        find("Mehl", "g");
+        when(repository.findByMatchKeyInOrderByIdAsc(Set.of("quinoa")))
+            .thenReturn(List.of(entry(3L, "Quinoa", "g", 3.6)));
+
+        cache.refresh(List.of("quinoa"));
+
+        assertEquals(3L, find("Quinoa", "g").getId());
+        assertEquals(1L, find("Mehl", "g").getId());
+        assertEquals(2L, find("Zucker", "g").getId());
+        verify(repository, times(1)).findAll(any(Sort.class));
+    }
+
+    @Test
+    void refresh_shouldAddEntriesOfNewAliasAndUpdateAliasesOfChangedTarget() {
+        when(repository.findAll(any(Sort.class))).thenReturn(List.of(
+            entry(1L, "Frühlingszwiebel", "Stück", 12.0), entry(2L, "Schalotte", "Stück", 7.0)));
+        when(aliasRepository.findAll()).thenReturn(List.of(new IngredientAlias("zwiebelch", "schalott")));
+        find("Mehl", "g");
+        // Lauchzwiebel learned as alias of Frühlingszwiebel, which got an entry in grams
+        when(aliasRepository.findByMatchKeyInOrTargetKeyIn(Set.of("fruhlingszwiebel", "lauchzwiebel"), Set.of("fruhlingszwiebel", "lauchzwiebel")))
+            .thenReturn(List.of(new IngredientAlias("lauchzwiebel", "fruhlingszwiebel")));
+        when(repository.findByMatchKeyInOrderByIdAsc(Set.of("fruhlingszwiebel", "lauchzwiebel")))
+            .thenReturn(List.of(entry(1L, "Frühlingszwiebel", "Stück", 12.0), entry(3L, "Frühlingszwiebel", "g", 0.3)));
+
+        cache.refresh(List.of("fruhlingszwiebel", "lauchzwiebel"));
+
+        assertEquals(3L, find("Lauchzwiebeln", "g").getId());
+        assertEquals(1L, find("Lauchzwiebel", "Stück").getId());
+        assertEquals(3L, find("Frühlingszwiebel", "g").getId());
+        assertEquals(2L, find("Zwiebelchen", "Stück").getId());
+        verify(repository, times(1)).findAll(any(Sort.class));
+    }
+
+    @Test
+    void refresh_shouldWaitForCommitInsideTransaction() {
+        when(repository.findAll(any(Sort.class))).thenReturn(List.of(entry(1L, "Mehl", "g", 3.4)));
+        find("Mehl", "g");
+        when(repository.findByMatchKeyInOrderByIdAsc(Set.of("mehl"))).thenReturn(List.of(entry(1L, "Mehl", "g", 3.5)));
+        TransactionSynchronizationManager.initSynchronization();
+
+        cache.refresh(List.of("mehl"));
+        assertEquals(3.4, find("Mehl", "g").getNutritionKcal());
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertEquals(3.5, find("Mehl", "g").getNutritionKcal());
+        verify(repository, times(1)).findAll(any(Sort.class));
+    }
+
+    private IngredientCatalog find(String name, String unit) {
+        return cache.findAll(List.of(name), List.of(unit)).get(IngredientCatalog.lookupKey(name, unit));
+    }
+
+    private static IngredientCatalog entry(Long id, String name, String unit, Double kcal) {
+        IngredientCatalog entry = new IngredientCatalog(name, unit, kcal, null, null, null, null);
+        entry.setId(id);
+        return entry;
+    }
+}
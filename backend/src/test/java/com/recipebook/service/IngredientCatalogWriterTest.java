@@ -0,0 +1,65 @@
+package com.recipebook.service;
+
+import com.recipebook.model.IngredientCatalog;
+import com.recipebook.repository.IngredientAliasRepository;
+import com.recipebook.repository.IngredientCatalogRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IngredientCatalogWriterTest {
+
+    @Mock
+    private IngredientCatalogRepository catalogRepository;
+
+    @Mock
+    private IngredientAliasRepository aliasRepository;
+
+    @Mock
+    private IngredientCatalogCache catalogCache;
+
+    private IngredientCatalogWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        writer = new IngredientCatalogWriter(catalogRepository, aliasRepository, catalogCache);
+    }
+
+    @Test
+    void add_shouldFileEntryUnderBaseNameAndLearnAlias() {
+        writer.add(new IngredientCatalog("Lauchzwiebeln", "g", 0.3, null, null, null, null), "Frühlingszwiebel");
+
+        verify(aliasRepository).learn("lauchzwiebel", "fruhlingszwiebel");
+        verify(catalogRepository).insertOrComplete(eq("Frühlingszwiebel"), eq("fruhlingszwiebel"), eq("g"),
+            eq(0.3), any(), any(), any(), any(), any(), any());
+        verify(catalogCache).refresh(List.of("fruhlingszwiebel", "lauchzwiebel"));
+    }
+
+    @Test
+    void add_shouldKeepNameWhenBaseNameIsTheSameIngredient() {
+        writer.add(new IngredientCatalog("Zwiebeln", "g", 0.4, null, null, null, null), "Zwiebel");
+
+        verifyNoInteractions(aliasRepository);
+        verify(catalogRepository).insertOrComplete(eq("Zwiebeln"), eq("zwiebel"), eq("g"),
+            eq(0.4), any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void add_shouldNotLearnAliasOfEmptyKey() {
+        writer.add(new IngredientCatalog("Mehl", "g", 3.4, null, null, null, null), "(-)");
+
+        verify(aliasRepository, never()).learn(anyString(), anyString());
+        verify(catalogRepository).insertOrComplete(eq("Mehl"), eq("mehl"), eq("g"),
+            eq(3.4), any(), any(), any(), any(), any(), any());
+    }
+}
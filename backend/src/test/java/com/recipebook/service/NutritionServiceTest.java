@@ -0,0 +1,101 @@
+package com.recipebook.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.recipebook.model.Ingredient;
+import com.recipebook.model.IngredientCatalog;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NutritionServiceTest {
+
+    @Mock
+    private IngredientCatalogCache catalogCache;
+
+    @Mock
+    private IngredientCatalogWriter catalogWriter;
+
+    private NutritionService nutritionService;
+    private final Map<String, IngredientCatalog> catalog = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        nutritionService = new NutritionService(new ObjectMapper(), catalogCache, catalogWriter, new UnitConverter(),
+            "http://localhost");
+        when(catalogCache.findAll(any(), any())).thenReturn(catalog);
+    }
+
+    @Test
+    void calculateNutrition_shouldConvertUnitsToTheCatalogEntryOfTheIngredient() {
+        catalog("Mehl", "g", 3.4, 0.55, null);
+        catalog("Ei", "Stück", 90.0, null, 60.0);
+
+        NutritionService.NutritionResult result = nutritionService.calculateNutrition(List.of(
+            ingredient("Mehl", "0,5", "kg"),
+            ingredient("mehl", "2", "EL"),
+            ingredient("Eier", "1", "Stk."),
+            ingredient("Ei", "120", "g")));
+
+        // 500 g + 30 ml * 0.55 g/ml of flour and 1 + 120 g / 60 g of egg
+        assertEquals(3.4 * 516.5 + 90.0 * 3, result.getKcal(), 1e-9);
+    }
+
+    @Test
+    void calculateNutrition_shouldMatchNormalizedNames() {
+        catalog("Zwiebel", "Stück", 40.0, null, null);
+        catalog("Butter", "g", 7.4, null, null);
+        catalog("Knoblauch", "Stück", 4.0, null, null);
+
+        NutritionService.NutritionResult result = nutritionService.calculateNutrition(List.of(
+            ingredient("Zwiebeln, fein gewürfelt", "2", "Stück"),
+            ingredient("Butter (weich)", "10", "g"),
+            ingredient("Knoblauchzehen", "3", "Stück")));
+
+        assertEquals(80.0 + 74.0 + 12.0, result.getKcal(), 1e-9);
+        verifyNoInteractions(catalogWriter);
+    }
+
+    @Test
+    void calculateNutrition_shouldPreferEntryOfTheExactUnit() {
+        catalog("Butter", "g", 7.4, null, null);
+        catalog("Butter", "EL", 100.0, null, null);
+
+        NutritionService.NutritionResult result = nutritionService.calculateNutrition(List.of(ingredient("Butter", "1", "EL")));
+
+        assertEquals(100.0, result.getKcal(), 1e-9);
+    }
+
+    @Test
+    void calculateNutrition_shouldSkipUnitsItCannotConvert() {
+        catalog("Mehl", "g", 3.4, null, null);
+
+        NutritionService.NutritionResult result = nutritionService.calculateNutrition(List.of(
+            ingredient("Mehl", "100", "g"),
+            ingredient("Mehl", "2", "EL"),
+            ingredient("Petersilie", "1", "Bund")));
+
+        assertEquals(340.0, result.getKcal(), 1e-9);
+    }
+
+    private void catalog(String name, String unit, Double kcal, Double density, Double pieceWeight) {
+        IngredientCatalog entry = new IngredientCatalog(name, unit, kcal, null, null, null, null);
+        entry.setDensity(density);
+        entry.setPieceWeight(pieceWeight);
+        catalog.put(IngredientCatalog.lookupKey(name, unit), entry);
+    }
+
+    private static Ingredient ingredient(String name, String amount, String unit) {
+        return new Ingredient(name, amount, unit);
+    }
+}
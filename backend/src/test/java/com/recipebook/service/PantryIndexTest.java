@@ -0,0 +1,74 @@
+package com.recipebook.service;
+
+import com.recipebook.dto.PantryMatchDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class PantryIndexTest {
+
+    private PantryIndex index;
+
+    @BeforeEach
+    void setUp() {
+        IndexedRecipeLoader loader = mock(IndexedRecipeLoader.class);
+        when(loader.loadAll()).thenReturn(List.of(
+            new IndexedRecipe(1L, "Pfannkuchen", null, null, List.of("Mehl", "Milch", "Eier", "Zucker"), List.of()),
+            new IndexedRecipe(2L, "Rührei", null, null, List.of("Eier", "Butter"), List.of()),
+            new IndexedRecipe(3L, "Guacamole", null, null, List.of("Avocados", "Limettensaft"), List.of())
+        ));
+        index = new PantryIndex(loader);
+        index.rebuild();
+    }
+
+    @Test
+    void findCookable_shouldRankByFewestMissingIngredients() {
+        List<PantryMatchDto> matches = index.findCookable(List.of("eier", "MEHL", "Milch", "butter"), 10);
+
+        assertEquals(2, matches.size());
+        assertEquals(2L, matches.get(0).getId());
+        assertTrue(matches.get(0).getMissing().isEmpty());
+        assertEquals(1L, matches.get(1).getId());
+        assertEquals(List.of("Zucker"), matches.get(1).getMissing());
+        assertEquals(3, matches.get(1).getMatchedCount());
+    }
+
+    @Test
+    void onSaved_shouldReplacePostingsOfUpdatedRecipe() {
+        index.onSaved(new RecipeSavedEvent(new IndexedRecipe(2L, "Rührei", null, null, List.of("Eier", "Schnittlauch"), List.of())));
+
+        assertTrue(index.findCookable(List.of("Butter"), 10).isEmpty());
+        assertEquals(2L, index.findCookable(List.of("Schnittlauch"), 10).get(0).getId());
+    }
+
+    @Test
+    void findCookable_shouldMatchIngredientsByMatchKey() {
+        List<PantryMatchDto> matches = index.findCookable(List.of("Avocado", "Limettensaft, frisch"), 10);
+
+        assertEquals(1, matches.size());
+        assertEquals(3L, matches.get(0).getId());
+        assertTrue(matches.get(0).getMissing().isEmpty());
+    }
+
+    @Test
+    void onSaved_shouldIndexIdsBeyondIntRange() {
+        long id = Integer.MAX_VALUE + 1L;
+        index.onSaved(new RecipeSavedEvent(new IndexedRecipe(id, "Butterbrot", null, null, List.of("Brot", "Butter"), List.of())));
+        assertEquals(id, index.findCookable(List.of("Brot", "Butter"), 10).get(0).getId());
+
+        index.onDeleted(new RecipeDeletedEvent(id));
+        assertEquals(2L, index.findCookable(List.of("Brot", "Butter"), 10).get(0).getId());
+    }
+
+    @Test
+    void insertAndDelete_shouldKeepPostingsSorted() {
+        long[] postings = PantryIndex.insert(PantryIndex.insert(PantryIndex.insert(new long[0], 5), 1), 3);
+
+        assertArrayEquals(new long[] {1, 3, 5}, postings);
+        assertArrayEquals(new long[] {1, 5}, PantryIndex.delete(postings, 3));
+    }
+}
@@ -0,0 +1,88 @@
+package com.recipebook.service;
+
+import com.recipebook.dto.RecipeDetailDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecipeDetailCacheTest {
+
+    private RecipeDetailCache cache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        cache = new RecipeDetailCache(2);
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void get_shouldLoadOnceUntilRecipeIsSaved() {
+        cache.get(1L, () -> load(1L));
+        cache.get(1L, () -> load(1L));
+        assertEquals(1, loads.get());
+
+        cache.onSaved(new RecipeSavedEvent(new IndexedRecipe(1L, "Neu", null, null, List.of(), List.of())));
+        cache.get(1L, () -> load(1L));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void get_shouldNotCacheDetailLoadedWhileRecipeChanged() {
+        cache.get(1L, () -> {
+            cache.onDeleted(new RecipeDeletedEvent(1L));
+            return load(1L);
+        });
+        cache.get(1L, () -> load(1L));
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void get_shouldEvictLeastRecentlyUsed() {
+        cache.get(1L, () -> load(1L));
+        cache.get(2L, () -> load(2L));
+        cache.get(1L, () -> load(1L));
+        cache.get(3L, () -> load(3L));
+
+        cache.get(1L, () -> load(1L));
+        assertEquals(3, loads.get());
+        cache.get(2L, () -> load(2L));
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    void getAll_shouldLoadOnlyMissingIdsInOneCall() {
+        cache.get(1L, () -> load(1L));
+        List<List<Long>> calls = new ArrayList<>();
+
+        Map<Long, RecipeDetailDto> result = cache.getAll(List.of(1L, 2L, 9L), ids -> {
+            calls.add(ids);
+            return List.of(load(2L).orElseThrow());
+        });
+
+        assertEquals(List.of(List.of(2L, 9L)), calls);
+        assertEquals(Set.of(1L, 2L), result.keySet());
+        cache.get(2L, () -> load(2L));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void get_shouldNotCacheMissingRecipes() {
+        assertTrue(cache.get(9L, Optional::empty).isEmpty());
+    }
+
+    private Optional<RecipeDetailDto> load(Long id) {
+        loads.incrementAndGet();
+        return Optional.of(new RecipeDetailDto(id, "Rezept " + id, null, List.of(), List.of(), 4, null, null, null,
+            null, null, null, null, null, null, null, null, null, 0L));
+    }
+}
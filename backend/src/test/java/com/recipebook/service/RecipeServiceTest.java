@@ -1,11 +1,19 @@
 package com.recipebook.service;
 
+import com.recipebook.dto.RecipeChangesDto;
+import com.recipebook.dto.RecipeDetailDto;
+import com.recipebook.dto.RecipePatchRequest;
+import com.recipebook.dto.RecipeSearchResultDto;
+import com.recipebook.dto.RecipeSummaryPageDto;
 import com.recipebook.model.CustomUserDetails;
+import com.recipebook.model.EnrichmentStatus;
 import com.recipebook.model.Ingredient;
 import com.recipebook.model.Recipe;
+import com.recipebook.model.RecipeSummary;
 import com.recipebook.model.Role;
 import com.recipebook.model.User;
 import com.recipebook.repository.RecipeRepository;
+import com.recipebook.repository.RecipeSummaryRepository;
 import com.recipebook.repository.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -13,13 +21,24 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -28,9 +47,36 @@ class RecipeServiceTest {
     @Mock
     private RecipeRepository recipeRepository;
 
+    @Mock
+    private RecipeSummaryRepository recipeSummaryRepository;
+
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private EnrichmentQueue enrichmentQueue;
+
+    @Mock
+    private ImageStorageService imageStorageService;
+
+    @Mock
+    private ImageVariantService imageVariantService;
+
+    @Mock
+    private RecipeSummaryCache recipeSummaryCache;
+
+    @Mock
+    private RecipeSummaryStreamWriter recipeSummaryStreamWriter;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private RecipeDetailCache recipeDetailCache;
+
+    @Mock
+    private RecipeDetailLoader recipeDetailLoader;
+
     @InjectMocks
     private RecipeService recipeService;
 
@@ -52,46 +98,75 @@ class RecipeServiceTest {
     }
 
     @Test
-    void findAll_shouldReturnAllRecipes() {
-        List<Recipe> recipes = Arrays.asList(testRecipe);
-        when(recipeRepository.findAll()).thenReturn(recipes);
+    void search_shouldReturnMatchingRecipes() {
+        RecipeSummaryRepository.SearchHitProjection hit = mock(RecipeSummaryRepository.SearchHitProjection.class);
+        when(hit.getRecipeId()).thenReturn(1L);
+        when(hit.getTitle()).thenReturn("Test Recipe");
+        when(hit.getSnippet()).thenReturn("<mark>Test</mark> Description");
+        when(recipeSummaryRepository.search("Test", 20, 40)).thenReturn(List.of(hit));
 
-        List<Recipe> result = recipeService.findAll();
+        List<RecipeSearchResultDto> result = recipeService.search("Test", 2, 20);
 
         assertEquals(1, result.size());
         assertEquals("Test Recipe", result.get(0).getTitle());
-        verify(recipeRepository, times(1)).findAll();
+        assertEquals("<mark>Test</mark> Description", result.get(0).getSnippet());
+        verify(recipeSummaryRepository, times(1)).search("Test", 20, 40);
     }
 
     @Test
-    void findById_shouldReturnRecipeWhenExists() {
-        when(recipeRepository.findById(1L)).thenReturn(Optional.of(testRecipe));
+    void search_shouldSkipQueryForBlankInput() {
+        assertTrue(recipeService.search("  ", 0, 20).isEmpty());
+        verify(recipeSummaryRepository, never()).search(any(), anyInt(), anyInt());
+    }
 
-        Optional<Recipe> result = recipeService.findById(1L);
+    @Test
+    void findSummaryPage_shouldReturnNextCursorWhenMoreRecipesExist() {
+        List<RecipeSummary> rows = Arrays.asList(summary(30L), summary(20L), summary(10L));
+        when(recipeSummaryRepository.findByRecipeIdLessThanOrderByRecipeIdDesc(Long.MAX_VALUE, Limit.of(3))).thenReturn(rows);
 
-        assertTrue(result.isPresent());
-        assertEquals("Test Recipe", result.get().getTitle());
+        RecipeSummaryPageDto page = recipeService.findSummaryPage(null, 2);
+
+        assertEquals(2, page.getItems().size());
+        assertEquals(30L, page.getItems().get(0).getId());
+        assertEquals(20L, page.getNextCursor());
     }
 
     @Test
-    void findById_shouldReturnEmptyWhenNotExists() {
-        when(recipeRepository.findById(999L)).thenReturn(Optional.empty());
+    void findSummaryPage_shouldReturnNoCursorOnLastPage() {
+        List<RecipeSummary> rows = Arrays.asList(summary(10L));
+        when(recipeSummaryRepository.findByRecipeIdLessThanOrderByRecipeIdDesc(20L, Limit.of(3))).thenReturn(rows);
 
-        Optional<Recipe> result = recipeService.findById(999L);
+        RecipeSummaryPageDto page = recipeService.findSummaryPage(20L, 2);
 
-        assertFalse(result.isPresent());
+        assertEquals(1, page.getItems().size());
+        assertNull(page.getNextCursor());
     }
 
     @Test
-    void search_shouldReturnMatchingRecipes() {
-        List<Recipe> recipes = Arrays.asList(testRecipe);
-        when(recipeRepository.searchByTitleOrDescription("Test")).thenReturn(recipes);
+    void findChanges_shouldReturnLatestVersionOfUpsertsAndDeletes() {
+        RecipeSummary changed = summary(10L);
+        changed.setSyncVersion(7L);
+        when(recipeSummaryRepository.findBySyncVersionGreaterThanOrderBySyncVersionAsc(5L)).thenReturn(List.of(changed));
+        when(recipeSummaryRepository.findDeletedRecipeIdsSince(5L)).thenReturn(List.of(20L));
+        when(recipeSummaryRepository.findLatestTombstoneVersionSince(5L)).thenReturn(9L);
+
+        RecipeChangesDto changes = recipeService.findChanges(5L);
+
+        assertEquals(9L, changes.getVersion());
+        assertEquals(10L, changes.getUpserted().get(0).getId());
+        assertEquals(List.of(20L), changes.getDeleted());
+    }
 
-        List<Recipe> result = recipeService.search("Test");
+    @Test
+    void findChanges_shouldKeepVersionWhenNothingChanged() {
+        when(recipeSummaryRepository.findBySyncVersionGreaterThanOrderBySyncVersionAsc(5L)).thenReturn(List.of());
+        when(recipeSummaryRepository.findDeletedRecipeIdsSince(5L)).thenReturn(List.of());
+        when(recipeSummaryRepository.findLatestTombstoneVersionSince(5L)).thenReturn(0L);
 
-        assertEquals(1, result.size());
-        assertEquals("Test Recipe", result.get(0).getTitle());
-        verify(recipeRepository, times(1)).searchByTitleOrDescription("Test");
+        RecipeChangesDto changes = recipeService.findChanges(5L);
+
+        assertEquals(5L, changes.getVersion());
+        assertTrue(changes.getUpserted().isEmpty());
     }
 
     @Test
@@ -104,6 +179,10 @@ class RecipeServiceTest {
         assertEquals("Test Recipe", result.getTitle());
         assertEquals(testUser, result.getUser());
         verify(recipeRepository, times(1)).save(testRecipe);
+        verify(recipeRepository, times(1)).markChanged(eq(1L), any());
+        verify(recipeRepository, times(1)).refreshSearchVector(1L);
+        verify(recipeSummaryRepository, times(1)).refresh(1L);
+        verify(recipeSummaryCache, times(1)).invalidate();
     }
 
     @Test
@@ -119,6 +198,20 @@ class RecipeServiceTest {
         assertEquals(result, result.getIngredients().get(0).getRecipe());
     }
 
+    @Test
+    void save_shouldMoveInlineImageToImageStore() {
+        String dataUrl = "data:image/png;base64,iVBORw0KGgo=";
+        testRecipe.setImageUrl(dataUrl);
+        when(imageStorageService.isDataUrl(dataUrl)).thenReturn(true);
+        when(imageStorageService.storeDataUrl(dataUrl)).thenReturn("/api/images/abc.png");
+        when(recipeRepository.save(any(Recipe.class))).thenReturn(testRecipe);
+
+        Recipe result = recipeService.save(testRecipe, testUser);
+
+        assertEquals("/api/images/abc.png", result.getImageUrl());
+        verify(imageVariantService).generateAsync("/api/images/abc.png");
+    }
+
     @Test
     void saveForUser_shouldSaveWithUserFromDetails() {
         CustomUserDetails userDetails = mock(CustomUserDetails.class);
@@ -143,75 +236,279 @@ class RecipeServiceTest {
     }
 
     @Test
-    void deleteById_shouldCallRepository() {
-        doNothing().when(recipeRepository).deleteById(1L);
+    void update_shouldNotQueueNutritionWhenIngredientsAreUnchanged() {
+        Recipe stored = storedRecipe();
+        Recipe changes = recipe();
+        changes.setTitle("Neuer Titel");
+        changes.getIngredients().get(0).setId(null);
+
+        Recipe result = recipeService.update(1L, changes, new CustomUserDetails(testUser), null).orElseThrow();
+
+        assertEquals("Neuer Titel", result.getTitle());
+        assertSame(stored.getIngredients().get(0), result.getIngredients().get(0));
+        verifyNoInteractions(enrichmentQueue);
+        verify(recipeSummaryRepository).refresh(1L);
+    }
+
+    @Test
+    void update_shouldLeaveRecipeUntouchedWhenNothingChanged() {
+        Recipe stored = storedRecipe();
+        LocalDateTime updatedAt = LocalDateTime.of(2024, 1, 1, 12, 0);
+        stored.setUpdatedAt(updatedAt);
+        List<Ingredient> ingredients = stored.getIngredients();
+
+        Recipe result = recipeService.update(1L, recipe(), new CustomUserDetails(testUser), null).orElseThrow();
+
+        assertEquals(updatedAt, result.getUpdatedAt());
+        assertSame(ingredients, result.getIngredients());
+        assertSame(ingredients.get(0), result.getIngredients().get(0));
+        verify(recipeRepository, never()).markChanged(any(), any());
+        verify(recipeSummaryRepository, never()).refresh(any());
+        verifyNoInteractions(enrichmentQueue, eventPublisher, recipeSummaryCache);
+    }
 
-        recipeService.deleteById(1L);
+    @Test
+    void patch_shouldWriteWhenOnlyIngredientOrderChanged() {
+        Recipe stored = storedRecipe();
+        Ingredient mehl = stored.getIngredients().get(0);
+        Ingredient hefe = stored.getIngredients().get(1);
+        RecipePatchRequest patch = new RecipePatchRequest();
+        patch.setIngredients(List.of(ingredient(11L, "Hefe", "1", "Würfel"), ingredient(10L, "Mehl", "500", "g")));
+
+        Recipe result = recipeService.patch(1L, patch, new CustomUserDetails(testUser), null).orElseThrow();
+
+        assertEquals(List.of(hefe, mehl), result.getIngredients());
+        verify(recipeSummaryRepository).refresh(1L);
+        verifyNoInteractions(enrichmentQueue);
+    }
 
-        verify(recipeRepository, times(1)).deleteById(1L);
+    @Test
+    void update_shouldEditIngredientInPlaceAndQueueNutrition() {
+        Recipe stored = storedRecipe();
+        Ingredient mehl = stored.getIngredients().get(0);
+        Recipe changes = recipe();
+        changes.getIngredients().get(0).setAmount("300");
+        changes.getIngredients().remove(1);
+        changes.getIngredients().add(new Ingredient("Salz", "1", "Prise"));
+
+        Recipe result = recipeService.update(1L, changes, new CustomUserDetails(testUser), null).orElseThrow();
+
+        assertEquals(2, result.getIngredients().size());
+        assertSame(mehl, result.getIngredients().get(0));
+        assertEquals("300", mehl.getAmount());
+        assertEquals("Salz", result.getIngredients().get(1).getName());
+        assertEquals(1, result.getIngredients().get(1).getSortOrder());
+        assertEquals(EnrichmentStatus.PENDING, result.getEnrichmentStatus());
+        verify(enrichmentQueue).enqueue(1L, EnumSet.of(EnrichmentJob.Kind.NUTRITION));
     }
 
     @Test
-    void isOwner_shouldReturnTrueWhenUserIsOwner() {
-        when(recipeRepository.findById(1L)).thenReturn(Optional.of(testRecipe));
+    void update_shouldChangeStepsByPosition() {
+        Recipe stored = storedRecipe();
+        List<String> steps = stored.getInstructions();
+        Recipe changes = recipe();
+        changes.setInstructions(List.of("Mehl sieben", "Backen"));
 
-        boolean result = recipeService.isOwner(1L, testUser);
+        recipeService.update(1L, changes, new CustomUserDetails(testUser), null);
 
-        assertTrue(result);
+        assertSame(steps, stored.getInstructions());
+        assertEquals(List.of("Mehl sieben", "Backen"), steps);
     }
 
     @Test
-    void isOwner_shouldReturnFalseWhenUserIsNotOwner() {
-        User otherUser = new User();
-        otherUser.setId(2L);
-        otherUser.setEmail("other@test.de");
-        testRecipe.setUser(otherUser);
+    void patch_shouldKeepFieldsMissingFromRequest() {
+        Recipe stored = storedRecipe();
+        RecipePatchRequest patch = new RecipePatchRequest();
+        patch.setPrepTimeMinutes(45);
+
+        Recipe result = recipeService.patch(1L, patch, new CustomUserDetails(testUser), null).orElseThrow();
+
+        assertEquals(45, result.getPrepTimeMinutes());
+        assertEquals("Brot", result.getTitle());
+        assertEquals("Test Description", result.getDescription());
+        assertEquals(List.of("Mehl sieben", "Kneten", "Backen"), stored.getInstructions());
+        verifyNoInteractions(enrichmentQueue);
+    }
 
-        when(recipeRepository.findById(1L)).thenReturn(Optional.of(testRecipe));
+    @Test
+    void update_shouldReturnEmptyWhenRecipeNotFound() {
+        when(recipeRepository.findWithIngredientsById(9L)).thenReturn(Optional.empty());
+
+        assertTrue(recipeService.update(9L, new Recipe(), new CustomUserDetails(testUser), null).isEmpty());
+        verify(recipeSummaryRepository, never()).refresh(any());
+    }
 
-        boolean result = recipeService.isOwner(1L, testUser);
+    @Test
+    void saveForUser_shouldQueueEnrichmentInsteadOfCallingExternalServices() {
+        Recipe recipe = recipe();
+        recipe.setId(null);
+        recipe.setIngredients(new ArrayList<>(recipe.getIngredients()));
+        recipe.getIngredients().forEach(i -> i.setId(null));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(recipeRepository.save(recipe)).thenAnswer(invocation -> {
+            recipe.setId(5L);
+            return recipe;
+        });
 
-        assertFalse(result);
+        Recipe saved = recipeService.saveForUser(recipe, new CustomUserDetails(testUser));
+
+        assertEquals(EnrichmentStatus.PENDING, saved.getEnrichmentStatus());
+        verify(enrichmentQueue).enqueue(5L, EnumSet.of(EnrichmentJob.Kind.IMAGE, EnrichmentJob.Kind.NUTRITION));
     }
 
     @Test
-    void isOwner_shouldReturnFalseWhenUserIsNull() {
-        boolean result = recipeService.isOwner(1L, (User) null);
+    void completeImageEnrichment_shouldKeepImageSetMeanwhileAndFinishWhenNoJobsLeft() {
+        Recipe stored = storedRecipe();
+        stored.setImageUrl("/api/images/own.jpg");
+        stored.setEnrichmentStatus(EnrichmentStatus.PENDING);
+        EnrichmentJob job = new EnrichmentJob(7L, 1L, EnrichmentJob.Kind.IMAGE, 0, 1);
+        when(recipeRepository.lockById(1L)).thenReturn(Optional.of(1L));
+        when(enrichmentQueue.remove(job)).thenReturn(true);
+        when(enrichmentQueue.hasJobs(1L)).thenReturn(false);
+
+        recipeService.completeImageEnrichment(job, "https://images.unsplash.com/photo");
+
+        assertEquals("/api/images/own.jpg", stored.getImageUrl());
+        assertEquals(EnrichmentStatus.DONE, stored.getEnrichmentStatus());
+        verify(recipeSummaryRepository).refresh(1L);
+    }
 
-        assertFalse(result);
+    @Test
+    void completeNutritionEnrichment_shouldStayPendingWhileOtherJobsRemain() {
+        Recipe stored = storedRecipe();
+        stored.setEnrichmentStatus(EnrichmentStatus.PENDING);
+        EnrichmentJob job = new EnrichmentJob(8L, 1L, EnrichmentJob.Kind.NUTRITION, 0, 1);
+        when(recipeRepository.lockById(1L)).thenReturn(Optional.of(1L));
+        when(enrichmentQueue.remove(job)).thenReturn(true);
+        when(enrichmentQueue.hasJobs(1L)).thenReturn(true);
+
+        recipeService.completeNutritionEnrichment(job, new NutritionService.NutritionResult(1, 2, 3, 4, 5));
+
+        assertEquals(1.0, stored.getNutritionKcal());
+        assertEquals(EnrichmentStatus.PENDING, stored.getEnrichmentStatus());
     }
 
     @Test
-    void isOwnerWithUserId_shouldReturnTrueWhenUserIdMatches() {
-        when(recipeRepository.findById(1L)).thenReturn(Optional.of(testRecipe));
+    void failEnrichment_shouldMarkRecipeFailed() {
+        Recipe stored = storedRecipe();
+        stored.setEnrichmentStatus(EnrichmentStatus.PENDING);
+        EnrichmentJob job = new EnrichmentJob(8L, 1L, EnrichmentJob.Kind.NUTRITION, 0, 5);
+        when(recipeRepository.lockById(1L)).thenReturn(Optional.of(1L));
+        when(enrichmentQueue.remove(job)).thenReturn(true);
 
-        boolean result = recipeService.isOwner(1L, 1L);
+        recipeService.failEnrichment(job);
 
-        assertTrue(result);
+        assertEquals(EnrichmentStatus.FAILED, stored.getEnrichmentStatus());
+    }
+
+    @Test
+    void update_shouldRejectStaleVersion() {
+        Recipe stored = storedRecipe();
+        stored.setVersion(3L);
+        Recipe changes = recipe();
+        changes.setTitle("Neuer Titel");
+
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+            () -> recipeService.update(1L, changes, new CustomUserDetails(testUser), 2L));
+
+        assertEquals(HttpStatus.PRECONDITION_FAILED, e.getStatusCode());
+        assertEquals("Brot", stored.getTitle());
+        verify(recipeSummaryRepository, never()).refresh(any());
     }
 
     @Test
-    void isOwnerWithUserId_shouldReturnFalseWhenUserIdDoesNotMatch() {
+    void update_shouldAcceptMatchingVersion() {
+        storedRecipe().setVersion(3L);
+        Recipe changes = recipe();
+        changes.setTitle("Neuer Titel");
+
+        Recipe result = recipeService.update(1L, changes, new CustomUserDetails(testUser), 3L).orElseThrow();
+
+        assertEquals("Neuer Titel", result.getTitle());
+    }
+
+    @Test
+    void patch_shouldRejectUserWhoIsNeitherOwnerNorAdmin() {
+        storedRecipe();
+        User other = new User();
+        other.setId(2L);
+        other.setRole(Role.USER);
+
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+            () -> recipeService.patch(1L, new RecipePatchRequest(), new CustomUserDetails(other), null));
+
+        assertEquals(HttpStatus.FORBIDDEN, e.getStatusCode());
+    }
+
+    @Test
+    void delete_shouldCheckVersionOnTheSingleLoad() {
+        testRecipe.setVersion(1L);
         when(recipeRepository.findById(1L)).thenReturn(Optional.of(testRecipe));
 
-        boolean result = recipeService.isOwner(1L, 999L);
+        assertThrows(ResponseStatusException.class,
+            () -> recipeService.delete(1L, new CustomUserDetails(testUser), 0L));
+        assertTrue(recipeService.delete(1L, new CustomUserDetails(testUser), 1L));
 
-        assertFalse(result);
+        verify(recipeRepository, times(2)).findById(1L);
+        verify(recipeRepository, times(1)).delete(testRecipe);
+        verify(recipeSummaryRepository).insertTombstone(eq(1L), any());
+        verify(eventPublisher).publishEvent(new RecipeDeletedEvent(1L));
+        verify(recipeSummaryCache, times(1)).invalidate();
     }
 
     @Test
-    void isOwnerWithUserId_shouldReturnFalseWhenUserIdIsNull() {
-        boolean result = recipeService.isOwner(1L, (Long) null);
+    void findDetails_shouldRejectBatchesAboveMaxSize() {
+        ReflectionTestUtils.setField(recipeService, "batchMaxSize", 2);
 
-        assertFalse(result);
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+            () -> recipeService.findDetails(List.of(1L, 2L, 3L)));
+
+        assertEquals(HttpStatus.BAD_REQUEST, e.getStatusCode());
+        verifyNoInteractions(recipeDetailCache);
     }
 
     @Test
-    void isOwnerWithUserId_shouldReturnFalseWhenRecipeNotFound() {
-        when(recipeRepository.findById(999L)).thenReturn(Optional.empty());
+    void findDetails_shouldKeepRequestOrderAndDropDuplicatesAndUnknownIds() {
+        ReflectionTestUtils.setField(recipeService, "batchMaxSize", 5);
+        RecipeDetailDto first = RecipeDetailDto.of(testRecipe);
+        when(recipeDetailCache.getAll(eq(List.of(3L, 1L)), any())).thenReturn(Map.of(1L, first));
+
+        List<RecipeDetailDto> result = recipeService.findDetails(List.of(3L, 1L, 3L));
 
-        boolean result = recipeService.isOwner(999L, 1L);
+        assertEquals(List.of(first), result);
+    }
+
+    private Recipe storedRecipe() {
+        Recipe recipe = recipe();
+        when(recipeRepository.findWithIngredientsById(1L)).thenReturn(Optional.of(recipe));
+        when(recipeRepository.findWithInstructionsById(1L)).thenReturn(Optional.of(recipe));
+        return recipe;
+    }
+
+    private Recipe recipe() {
+        Recipe recipe = new Recipe();
+        recipe.setId(1L);
+        recipe.setTitle("Brot");
+        recipe.setDescription("Test Description");
+        recipe.setUser(testUser);
+        recipe.setInstructions(new ArrayList<>(List.of("Mehl sieben", "Kneten", "Backen")));
+        List<Ingredient> ingredients = new ArrayList<>();
+        ingredients.add(ingredient(10L, "Mehl", "500", "g"));
+        ingredients.add(ingredient(11L, "Hefe", "1", "Würfel"));
+        recipe.setIngredients(ingredients);
+        return recipe;
+    }
+
+    private static Ingredient ingredient(Long id, String name, String amount, String unit) {
+        Ingredient ingredient = new Ingredient(name, amount, unit);
+        ingredient.setId(id);
+        return ingredient;
+    }
 
-        assertFalse(result);
+    private RecipeSummary summary(Long id) {
+        RecipeSummary summary = new RecipeSummary();
+        summary.setRecipeId(id);
+        summary.setTitle("Recipe " + id);
+        return summary;
     }
 }
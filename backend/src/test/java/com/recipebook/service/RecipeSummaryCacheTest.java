@@ -0,0 +1,78 @@
+package com.recipebook.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.recipebook.dto.RecipeSummaryDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecipeSummaryCacheTest {
+
+    private RecipeSummaryCache cache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        cache = new RecipeSummaryCache();
+        loads = new AtomicInteger();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void get_shouldServeSnapshotFromMemoryUntilInvalidated() throws Exception {
+        RecipeSummaryCache.Snapshot first = cache.get(this::load);
+        RecipeSummaryCache.Snapshot second = cache.get(this::load);
+
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+        String json = new String(new GZIPInputStream(new ByteArrayInputStream(first.gzipJson())).readAllBytes());
+        assertTrue(json.contains("\"title\":\"Guacamole\""));
+    }
+
+    @Test
+    void invalidate_shouldRebuildWithNewEtag() {
+        RecipeSummaryCache.Snapshot first = cache.get(this::load);
+
+        cache.invalidate();
+        RecipeSummaryCache.Snapshot second = cache.get(this::load);
+
+        assertEquals(2, loads.get());
+        assertNotEquals(first.etag(), second.etag());
+    }
+
+    @Test
+    void invalidate_shouldWaitForCommitInsideTransaction() {
+        TransactionSynchronizationManager.initSynchronization();
+        long before = cache.getVersion();
+
+        cache.invalidate();
+        assertEquals(before, cache.getVersion());
+
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCommit();
+        }
+        assertEquals(before + 1, cache.getVersion());
+    }
+
+    private void load(OutputStream out) throws IOException {
+        loads.incrementAndGet();
+        new ObjectMapper().writeValue(out, List.of(new RecipeSummaryDto(1L, "Guacamole", null, null, null, 4, null, 8L)));
+    }
+}
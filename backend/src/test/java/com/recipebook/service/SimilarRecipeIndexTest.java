@@ -0,0 +1,57 @@
+package com.recipebook.service;
+
+import com.recipebook.dto.SimilarRecipeDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class SimilarRecipeIndexTest {
+
+    private static final List<String> PANCAKES = List.of("Mehl", "Milch", "Eier", "Zucker", "Backpulver", "Butter", "Salz");
+
+    private SimilarRecipeIndex index;
+
+    @BeforeEach
+    void setUp() {
+        IndexedRecipeLoader loader = mock(IndexedRecipeLoader.class);
+        when(loader.loadAll()).thenReturn(List.of(
+            new IndexedRecipe(1L, "Pfannkuchen", null, null, PANCAKES, List.of()),
+            new IndexedRecipe(2L, "Crêpes", null, null, List.of("Mehl", "Milch", "Eier", "Zucker", "Butter", "Salz", "Vanille"), List.of()),
+            new IndexedRecipe(3L, "Guacamole", null, null, List.of("Avocados", "Tomaten", "Zwiebel", "Limettensaft"), List.of())
+        ));
+        index = new SimilarRecipeIndex(loader);
+        index.rebuild();
+    }
+
+    @Test
+    void findSimilar_shouldReturnRecipesWithOverlappingIngredients() {
+        List<SimilarRecipeDto> similar = index.findSimilar(1L, 5);
+
+        assertEquals(List.of(2L), similar.stream().map(SimilarRecipeDto::getId).toList());
+        assertTrue(similar.get(0).getSimilarity() > 0.5);
+    }
+
+    @Test
+    void findSimilar_shouldFollowUpdatesAndDeletes() {
+        index.onSaved(new RecipeSavedEvent(new IndexedRecipe(4L, "Waffeln", null, null, PANCAKES, List.of())));
+        assertEquals(1.0, index.findSimilar(1L, 5).get(0).getSimilarity());
+
+        index.onDeleted(new RecipeDeletedEvent(4L));
+        index.onDeleted(new RecipeDeletedEvent(2L));
+        assertTrue(index.findSimilar(1L, 5).isEmpty());
+    }
+
+    @Test
+    void similarity_shouldEstimateJaccard() {
+        int[] a = SimilarRecipeIndex.signature(Set.of("a", "b", "c", "d"));
+        int[] b = SimilarRecipeIndex.signature(Set.of("c", "d", "e", "f"));
+
+        // exact Jaccard is 2/6
+        assertEquals(1.0 / 3, SimilarRecipeIndex.similarity(a, b), 0.15);
+    }
+}
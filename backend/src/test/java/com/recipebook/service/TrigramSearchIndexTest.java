@@ -0,0 +1,55 @@
+package com.recipebook.service;
+
+import com.recipebook.dto.FuzzyMatchDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TrigramSearchIndexTest {
+
+    private TrigramSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        IndexedRecipeLoader loader = mock(IndexedRecipeLoader.class);
+        when(loader.loadAll()).thenReturn(List.of(
+            new IndexedRecipe(1L, "Spaghetti Carbonara", "Chefkoch", null, List.of("Spaghetti", "Speck", "Eier"), List.of("g")),
+            new IndexedRecipe(2L, "Guacamole", null, null, List.of("Avocados", "Knoblauchzehen", "Knoblauch"), List.of())
+        ));
+        index = new TrigramSearchIndex(loader);
+        index.rebuild();
+    }
+
+    @Test
+    void search_shouldFindMisspelledTitleAndIngredient() {
+        assertEquals(1L, index.search("Spagetti", 10).get(0).getId());
+        assertEquals(2L, index.search("Knobluch", 10).get(0).getId());
+    }
+
+    @Test
+    void search_shouldRankTitleMatchAboveIngredientMatch() {
+        index.onSaved(new RecipeSavedEvent(
+            new IndexedRecipe(3L, "Tomatensuppe", null, null, List.of("Guacamole"), List.of())));
+
+        List<FuzzyMatchDto> hits = index.search("guakamole", 10);
+
+        assertEquals(List.of(2L, 3L), hits.stream().map(FuzzyMatchDto::getId).toList());
+    }
+
+    @Test
+    void onDeleted_shouldRemoveRecipeAndItsTerms() {
+        index.onDeleted(new RecipeDeletedEvent(2L));
+
+        assertTrue(index.search("Guacamole", 10).isEmpty());
+        assertFalse(index.search("Spaghetti", 10).isEmpty());
+    }
+
+    @Test
+    void search_shouldIgnoreUnrelatedWords() {
+        assertTrue(index.search("Schokolade", 10).isEmpty());
+    }
+}
@@ -0,0 +1,44 @@
+package com.recipebook.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UnitConverterTest {
+
+    private final UnitConverter converter = new UnitConverter();
+
+    @Test
+    void toBase_shouldConvertKnownUnitsIgnoringCaseAndTrailingDot() {
+        assertEquals(new UnitConverter.Quantity(1500, UnitConverter.Dimension.MASS), converter.toBase(1.5, "kg").orElseThrow());
+        assertEquals(new UnitConverter.Quantity(30, UnitConverter.Dimension.VOLUME), converter.toBase(2, " el ").orElseThrow());
+        assertEquals(new UnitConverter.Quantity(500, UnitConverter.Dimension.VOLUME), converter.toBase(0.5, "Liter").orElseThrow());
+        assertEquals(new UnitConverter.Quantity(3, UnitConverter.Dimension.COUNT), converter.toBase(3, "Stk.").orElseThrow());
+    }
+
+    @Test
+    void toBase_shouldLeaveUnknownUnitsUnconverted() {
+        assertTrue(converter.toBase(1, "Bund").isEmpty());
+        assertTrue(converter.toBase(1, "Dose").isEmpty());
+        assertTrue(converter.toBase(1, null).isEmpty());
+    }
+
+    @Test
+    void convert_shouldUseDensityAndPieceWeightAcrossDimensions() {
+        UnitConverter.Quantity twoTablespoons = new UnitConverter.Quantity(30, UnitConverter.Dimension.VOLUME);
+        UnitConverter.Quantity twoEggs = new UnitConverter.Quantity(2, UnitConverter.Dimension.COUNT);
+
+        assertEquals(16.5, converter.convert(twoTablespoons, UnitConverter.Dimension.MASS, 0.55, null).getAsDouble(), 1e-9);
+        assertEquals(120, converter.convert(twoEggs, UnitConverter.Dimension.MASS, null, 60.0).getAsDouble(), 1e-9);
+        assertEquals(100, converter.convert(twoEggs, UnitConverter.Dimension.VOLUME, 1.2, 60.0).getAsDouble(), 1e-9);
+        assertEquals(30, converter.convert(twoTablespoons, UnitConverter.Dimension.VOLUME, null, null).getAsDouble(), 1e-9);
+    }
+
+    @Test
+    void convert_shouldBeEmptyWithoutNeededFactor() {
+        UnitConverter.Quantity flour = new UnitConverter.Quantity(200, UnitConverter.Dimension.MASS);
+
+        assertTrue(converter.convert(flour, UnitConverter.Dimension.VOLUME, null, 50.0).isEmpty());
+        assertTrue(converter.convert(flour, UnitConverter.Dimension.COUNT, 0.55, 0.0).isEmpty());
+    }
+}
@@ -0,0 +1,34 @@
+package com.recipebook.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AcceptEncodingTest {
+
+    @Test
+    void acceptsGzip_shouldAcceptListedGzip() {
+        assertTrue(AcceptEncoding.acceptsGzip("gzip"));
+        assertTrue(AcceptEncoding.acceptsGzip("gzip, deflate, br"));
+        assertTrue(AcceptEncoding.acceptsGzip("br;q=1.0, GZIP;q=0.5"));
+        assertTrue(AcceptEncoding.acceptsGzip("x-gzip"));
+        assertTrue(AcceptEncoding.acceptsGzip("*"));
+    }
+
+    @Test
+    void acceptsGzip_shouldHonourZeroWeight() {
+        assertFalse(AcceptEncoding.acceptsGzip("gzip;q=0"));
+        assertFalse(AcceptEncoding.acceptsGzip("gzip; q=0.000, deflate"));
+        assertFalse(AcceptEncoding.acceptsGzip("*, gzip;q=0"));
+        assertFalse(AcceptEncoding.acceptsGzip("deflate, *;q=0"));
+        assertFalse(AcceptEncoding.acceptsGzip("gzip;q=abc"));
+    }
+
+    @Test
+    void acceptsGzip_shouldNotMatchOtherCodingsContainingGzip() {
+        assertFalse(AcceptEncoding.acceptsGzip("x-gzip-foo"));
+        assertFalse(AcceptEncoding.acceptsGzip("identity"));
+        assertFalse(AcceptEncoding.acceptsGzip(""));
+        assertFalse(AcceptEncoding.acceptsGzip(null));
+    }
+}
@@ -0,0 +1,58 @@
+package com.recipebook.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IngredientNamesTest {
+
+    @Test
+    void matchKey_shouldMatchSingularAndPlural() {
+        assertSameKey("Ei", "Eier");
+        assertSameKey("Zwiebel", "Zwiebeln");
+        assertSameKey("Tomate", "Tomaten");
+        assertSameKey("Kartoffel", "Kartoffeln");
+        assertSameKey("Apfel", "Äpfel");
+        assertSameKey("Champignon", "Champignons");
+    }
+
+    @Test
+    void matchKey_shouldDropCountWordsOfCompounds() {
+        assertSameKey("Knoblauch", "Knoblauchzehen");
+        assertSameKey("Knoblauch", "Knoblauchzehe");
+        assertSameKey("Zimt", "Zimtstange");
+        assertSameKey("Petersilie", "Petersilienstängel");
+    }
+
+    @Test
+    void matchKey_shouldDropNotesAndPreparation() {
+        assertSameKey("Butter", "Butter, weich");
+        assertSameKey("Butter", "Butter (zimmerwarm)");
+        assertSameKey("Zwiebel", "Zwiebeln; fein gehackt");
+        assertSameKey("Petersilie", "frische Petersilie");
+        assertSameKey("Käse", "KÄSE, gerieben");
+    }
+
+    @Test
+    void matchKey_shouldUseNameAfterLeadingNotes() {
+        assertSameKey("Erbsen", "(TK) Erbsen");
+        assertSameKey("Milch", "(Bio) Milch");
+        assertSameKey("Milch", "(Bio), Milch");
+        assertSameKey("Zwiebel", ", Zwiebeln (rot)");
+        assertFalse(IngredientNames.matchKey("(TK) Erbsen").isEmpty());
+        assertEquals("tk", IngredientNames.matchKey("(TK)"));
+        assertEquals("", IngredientNames.matchKey("(-)"));
+    }
+
+    @Test
+    void matchKey_shouldKeepDistinctIngredientsApart() {
+        assertNotEquals(IngredientNames.matchKey("Zucker"), IngredientNames.matchKey("Puderzucker"));
+        assertNotEquals(IngredientNames.matchKey("Ei"), IngredientNames.matchKey("Eigelb"));
+        assertEquals("warm", IngredientNames.matchKey("warm"));
+        assertEquals("", IngredientNames.matchKey(null));
+    }
+
+    private static void assertSameKey(String expected, String name) {
+        assertEquals(IngredientNames.matchKey(expected), IngredientNames.matchKey(name), name);
+    }
+}
@@ -87,6 +87,38 @@ class IngredientCatalogService {
       throw error
     }
   }
+
+  async getAliases() {
+    try {
+      const response = await fetch(`${API_BASE_URL}/ingredient-catalog/aliases`, {
+        headers: { 'Authorization': `Bearer ${getToken()}` }
+      })
+      if (!response.ok) {
+        const msg = await parseError(response, 'Fehler beim Laden der Aliase.')
+        throw new Error(msg)
+      }
+      return await response.json()
+    } catch (error) {
+      console.error('Failed to load ingredient aliases:', error)
+      throw error
+    }
+  }
+
+  async deleteAlias(matchKey) {
+    try {
+      const response = await fetch(`${API_BASE_URL}/ingredient-catalog/aliases/${encodeURIComponent(matchKey)}`, {
+        method: 'DELETE',
+        headers: { 'Authorization': `Bearer ${getToken()}` }
+      })
+      if (!response.ok) {
+        const msg = await parseError(response, 'Fehler beim Löschen des Alias.')
+        throw new Error(msg)
+      }
+    } catch (error) {
+      console.error('Failed to delete ingredient alias:', error)
+      throw error
+    }
+  }
 }
 
 export const ingredientCatalogService = new IngredientCatalogService()
@@ -5,6 +5,13 @@ function getAuthHeaders() {
   return token ? { 'Authorization': `Bearer ${token}` } : {}
 }
 
+const CONFLICT_MESSAGE = 'Das Rezept wurde inzwischen geändert. Bitte neu laden.'
+
+// Schreibzugriffe nur auf den Stand, den der Client gelesen hat; sonst antwortet der Server mit 412
+function ifMatch(version) {
+  return version != null ? { 'If-Match': `"${version}"` } : {}
+}
+
 class RecipeService {
   async getAll() {
     try {
@@ -21,6 +28,21 @@ class RecipeService {
     }
   }
 
+  async getChanges(since) {
+    try {
+      const response = await fetch(`${API_BASE_URL}/recipes/changes?since=${since}`, {
+        headers: { ...getAuthHeaders() }
+      })
+      if (!response.ok) {
+        throw new Error(`HTTP error! status: ${response.status}`)
+      }
+      return await response.json()
+    } catch (error) {
+      console.error('Failed to fetch recipe changes:', error)
+      throw error
+    }
+  }
+
   async getById(id) {
     try {
       const response = await fetch(`${API_BASE_URL}/recipes/${id}`, {
@@ -36,6 +58,21 @@ class RecipeService {
     }
   }
 
+  async getSimilar(id, limit = 5) {
+    try {
+      const response = await fetch(`${API_BASE_URL}/recipes/${id}/similar?limit=${limit}`, {
+        headers: { ...getAuthHeaders() }
+      })
+      if (!response.ok) {
+        throw new Error(`HTTP error! status: ${response.status}`)
+      }
+      return await response.json()
+    } catch (error) {
+      console.error('Failed to fetch similar recipes:', error)
+      throw error
+    }
+  }
+
   async create(recipe) {
     try {
       const response = await fetch(`${API_BASE_URL}/recipes`, {
@@ -62,10 +99,14 @@ class RecipeService {
         method: 'PUT',
         headers: {
           'Content-Type': 'application/json',
-          ...getAuthHeaders()
+          ...getAuthHeaders(),
+          ...ifMatch(recipe.version)
         },
         body: JSON.stringify(recipe)
       })
+      if (response.status === 412) {
+        throw new Error(CONFLICT_MESSAGE)
+      }
       if (!response.ok) {
         throw new Error(`HTTP error! status: ${response.status}`)
       }
@@ -76,12 +117,15 @@ class RecipeService {
     }
   }
 
-  async delete(id) {
+  async delete(id, version) {
     try {
       const response = await fetch(`${API_BASE_URL}/recipes/${id}`, {
         method: 'DELETE',
-        headers: { ...getAuthHeaders() }
+        headers: { ...getAuthHeaders(), ...ifMatch(version) }
       })
+      if (response.status === 412) {
+        throw new Error(CONFLICT_MESSAGE)
+      }
       if (!response.ok) {
         throw new Error(`HTTP error! status: ${response.status}`)
       }
@@ -121,6 +165,22 @@ class RecipeService {
     }
   }
 
+  async autocomplete(type, prefix, limit = 8) {
+    try {
+      const params = new URLSearchParams({ type, prefix, limit })
+      const response = await fetch(`${API_BASE_URL}/recipes/autocomplete?${params}`, {
+        headers: { ...getAuthHeaders() }
+      })
+      if (!response.ok) {
+        throw new Error(`HTTP error! status: ${response.status}`)
+      }
+      return await response.json()
+    } catch (error) {
+      console.error('Failed to fetch suggestions:', error)
+      throw error
+    }
+  }
+
   async getUnits() {
     try {
       const response = await fetch(`${API_BASE_URL}/recipes/units`, {
@@ -9,6 +9,7 @@ const toSummary = (recipe) => ({
   title: recipe.title,
   description: recipe.description,
   imageUrl: recipe.imageUrl,
+  thumbnailUrl: recipe.thumbnailUrl ?? null,
   prepTimeMinutes: recipe.prepTimeMinutes,
   baseServings: recipe.baseServings,
   servingsTo: recipe.servingsTo,
@@ -21,8 +22,12 @@ const toSummary = (recipe) => ({
   nutritionFat: recipe.nutritionFat ?? null,
   nutritionProtein: recipe.nutritionProtein ?? null,
   nutritionFiber: recipe.nutritionFiber ?? null,
+  syncVersion: recipe.syncVersion ?? null,
 })
 
+const latestSyncVersion = (recipes) =>
+  recipes.reduce((max, r) => (r.syncVersion != null && r.syncVersion > max ? r.syncVersion : max), 0)
+
 export const useRecipeStore = defineStore('recipe', {
   state: () => ({
     recipes: [],
@@ -31,6 +36,7 @@ export const useRecipeStore = defineStore('recipe', {
     error: null,
     searchTerms: [],
     _lastFetched: null,
+    _syncVersion: 0,
   }),
 
   getters: {
@@ -121,6 +127,7 @@ export const useRecipeStore = defineStore('recipe', {
     async fetchRecipes({ background = false } = {}) {
       const stale = !this._lastFetched || Date.now() - this._lastFetched > 2 * 60 * 1000
       if (this.recipes.length > 0 && !stale && !this._forceRefresh) return
+      if (this.recipes.length > 0 && !this._forceRefresh) return this.syncRecipes()
       this._forceRefresh = false
       if (!background) this.loading = true
       this.error = null
@@ -129,6 +136,7 @@ export const useRecipeStore = defineStore('recipe', {
       try {
         const data = await recipeService.getAll()
         this.recipes = data
+        this._syncVersion = latestSyncVersion(data)
         this._lastFetched = Date.now()
       } catch (error) {
         this.error = error.message
@@ -139,6 +147,24 @@ export const useRecipeStore = defineStore('recipe', {
       }
     },
 
+    // Nur Änderungen seit dem letzten Stand holen statt die ganze Liste neu zu laden
+    async syncRecipes() {
+      try {
+        const changes = await recipeService.getChanges(this._syncVersion)
+        const removed = new Set(changes.deleted)
+        const upserted = new Map(changes.upserted.map((r) => [r.id, r]))
+        const kept = this.recipes.filter((r) => !removed.has(r.id) && !upserted.has(r.id))
+        // Neueste zuerst, IDs steigen mit dem Anlegen
+        this.recipes = [...changes.upserted.filter((r) => !removed.has(r.id)), ...kept]
+          .sort((a, b) => b.id - a.id)
+        this._syncVersion = changes.version
+        this._lastFetched = Date.now()
+      } catch (error) {
+        this.error = error.message
+        console.error('Failed to sync recipes:', error)
+      }
+    },
+
     invalidateRecipes() {
       this._forceRefresh = true
     },
@@ -203,7 +229,8 @@ export const useRecipeStore = defineStore('recipe', {
       this.error = null
       const numericId = Number(id)
       try {
-        await recipeService.delete(id)
+        const version = this.currentRecipe?.id === numericId ? this.currentRecipe.version : undefined
+        await recipeService.delete(id, version)
         this.recipes = this.recipes.filter((r) => r.id !== numericId)
         if (this.currentRecipe && this.currentRecipe.id === numericId) {
           this.currentRecipe = null